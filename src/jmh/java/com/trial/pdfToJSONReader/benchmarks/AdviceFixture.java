@@ -0,0 +1,45 @@
+package com.trial.pdfToJSONReader.benchmarks;
+
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.utils.AdviceParser;
+import com.trial.pdfToJSONReader.utils.SampleAdvices;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A synthetic settlement advice (generated with iText, laid out like the NIBSS sample) with the given number of transaction rows,
+ * along with what every stage before the one being measured would have produced, so each stage can be measured on its own.
+ * The advice is generated once per trial, before any measurement starts.
+ */
+@State(Scope.Benchmark)
+public class AdviceFixture {
+
+    @Param({"10", "1000", "100000"})
+    public int rows;
+
+    public File file;
+    public PDDocument document;
+    public String text;
+    public SampleModel sampleModel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Path path = Files.createTempFile("advice-" + rows + "-", ".pdf");
+        file = SampleAdvices.write(path, SampleAdvices.withRows(rows)).toFile();
+        document = PDDocument.load(file);
+        text = new PDFTextStripper().getText(document);
+        sampleModel = AdviceParser.parse(text);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        document.close();
+        Files.deleteIfExists(file.toPath());
+    }
+}
@@ -0,0 +1,42 @@
+package com.trial.pdfToJSONReader.benchmarks;
+
+import com.trial.pdfToJSONReader.utils.MonetaryValueParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning amounts like "4,320,410,494.37" into BigDecimal values, over a fixed mix of small, large and empty ("-") amounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonetaryValueBenchmark {
+
+    private static final int AMOUNTS = 1024;
+
+    private String[] amounts;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        amounts = new String[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            final long cents = i % 3 == 0 ? 0 : (long) (random.nextDouble() * Math.pow(10, 2 + random.nextInt(11)));
+            amounts[i] = cents == 0 ? "-" : String.format("%,d.%02d", cents / 100, cents % 100);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public void parse(final Blackhole blackhole) {
+        for (String amount : amounts) {
+            blackhole.consume(MonetaryValueParser.parse(amount));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.trial.pdfToJSONReader.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two formats a read can be asked for, JSON and CBOR ("Accept: application/cbor"): writing a parsed advice,
+ * and reading it back the way a consumer would. The size of both is printed once per trial, next to the rows of the advice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputFormatBenchmark {
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+
+    @Setup(Level.Trial)
+    public void setUp(final AdviceFixture fixture) throws IOException {
+        jsonBytes = json.writeValueAsBytes(fixture.sampleModel);
+        cborBytes = cbor.writeValueAsBytes(fixture.sampleModel);
+        System.out.printf("%n%d rows: JSON %,d bytes, CBOR %,d bytes (%.0f%%)%n", fixture.rows, jsonBytes.length, cborBytes.length,
+                100.0 * cborBytes.length / jsonBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writeJson(final AdviceFixture fixture) throws IOException {
+        return json.writeValueAsBytes(fixture.sampleModel);
+    }
+
+    @Benchmark
+    public byte[] writeCbor(final AdviceFixture fixture) throws IOException {
+        return cbor.writeValueAsBytes(fixture.sampleModel);
+    }
+
+    @Benchmark
+    public SampleModel readJson() throws IOException {
+        return json.readValue(jsonBytes, SampleModel.class);
+    }
+
+    @Benchmark
+    public SampleModel readCbor() throws IOException {
+        return cbor.readValue(cborBytes, SampleModel.class);
+    }
+}
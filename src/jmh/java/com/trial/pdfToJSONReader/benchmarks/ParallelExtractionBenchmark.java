@@ -0,0 +1,43 @@
+package com.trial.pdfToJSONReader.benchmarks;
+
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.utils.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a whole advice from its file with a single stripper (chunkPages = 0), and split into chunks of pages
+ * stripped at the same time, one worker per core (see {@link TextExtractor}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelExtractionBenchmark {
+
+    @Param({"0", "4", "16"})
+    public int chunkPages;
+
+    private TextExtractor textExtractor;
+    private FileReader fileReader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        textExtractor = new TextExtractor(chunkPages, 0);
+        fileReader = new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(), ReaderFixtures.disabledMetrics(),
+                ReaderFixtures.defaultTemplates(), textExtractor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        textExtractor.destroy();
+    }
+
+    @Benchmark
+    public SampleModel read(final AdviceFixture fixture) {
+        return fileReader.read(fixture.file.getPath());
+    }
+}
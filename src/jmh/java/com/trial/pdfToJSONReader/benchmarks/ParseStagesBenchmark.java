@@ -0,0 +1,49 @@
+package com.trial.pdfToJSONReader.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.utils.AdviceParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every stage of reading an advice on its own: loading the PDF, stripping its text, parsing the lines
+ * and turning the result into JSON. Run with: mvn -P jmh -DskipTests verify
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseStagesBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public int load(final AdviceFixture fixture) throws IOException {
+        try (PDDocument document = PDDocument.load(fixture.file)) {
+            return document.getNumberOfPages();
+        }
+    }
+
+    @Benchmark
+    public String strip(final AdviceFixture fixture) throws IOException {
+        return new PDFTextStripper().getText(fixture.document);
+    }
+
+    @Benchmark
+    public SampleModel parse(final AdviceFixture fixture) {
+        return AdviceParser.parse(fixture.text);
+    }
+
+    @Benchmark
+    public byte[] serialize(final AdviceFixture fixture) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fixture.sampleModel);
+    }
+}
@@ -0,0 +1,172 @@
+package com.trial.pdfToJSONReader.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.trial.pdfToJSONReader.controller.AppController;
+import com.trial.pdfToJSONReader.controller.AppRequestObject;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.utils.*;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A load test of the two ways /pdf/read serves a file path, driven through {@link AppController} itself, against sample advices on disk:
+ * blocking, where the request thread is held until the advice is read and written (the NDJSON response, whose body runs on the thread
+ * that asked for it), and asynchronous, where the request thread only hands the read over to admission control and the
+ * {@link AsyncFileReader}, and the result is written once it is there. <br>
+ * Every invocation is a burst of requests served by the same pool of request threads. The executors of the asynchronous reads are
+ * sized as in production: as many I/O threads as pdf.async.io-threads (platform threads, virtual ones need Java 21) and one parse thread
+ * per core, so the CPU work never has more threads than there are cores, while waiting on storage happens outside of it.
+ * Loading a file can be made to take storageLatencyMillis longer (i.e a network share), on whichever thread loads it: the request thread
+ * when blocking, the I/O executor when asynchronous. The score is the number of requests served per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestModelBenchmark {
+
+    private static final int REQUESTS = 64;
+
+    //The default of pdf.async.io-threads and pdf.admission.max-concurrent
+    private static final int IO_THREADS = 64;
+
+    @Param({"0", "20", "100"})
+    public int storageLatencyMillis;
+
+    //Like the worker threads of Tomcat, deliberately fewer than the requests of a burst
+    @Param({"8"})
+    public int requestThreads;
+
+    private Path directory;
+    private final List<AppRequestObject> requests = new ArrayList<>();
+    private ExecutorService requestPool;
+    private ReadExecutors readExecutors;
+    private BatchFileReader batchFileReader;
+    private ObjectWriter writer;
+    private AppController appController;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        //Advices of the lengths most of them have, taken in turn by the requests of a burst. A very long one would make every burst
+        // about the CPU, which both models share alike (see ParseStagesBenchmark for those)
+        directory = Files.createTempDirectory("request-model");
+        final byte[][] advices = {SampleAdvices.sample(), SampleAdvices.withRows(10), SampleAdvices.withRows(50),
+                SampleAdvices.withRows(100)};
+        for (int i = 0; i < advices.length; i++) {
+            requests.add(new AppRequestObject(SampleAdvices.write(directory.resolve("advice-" + i + ".pdf"), advices[i]).toString()));
+        }
+
+        final DocumentLoader documentLoader = new DocumentLoader(LoadMode.MEMORY, DataSize.ofMegabytes(64), "",
+                DataSize.ofMegabytes(50), DataSize.ofMegabytes(8)) {
+            @Override
+            public PDDocument load(final File file, final LoadMode mode) throws IOException {
+                waitOnStorage();
+                return super.load(file, mode);
+            }
+        };
+        //Without a cache, so every request reads its file
+        final ResultCache resultCache = ReaderFixtures.disabledCache();
+        final ParseMetrics parseMetrics = ReaderFixtures.disabledMetrics();
+        final FileReader fileReader = new FileReader(documentLoader, resultCache, parseMetrics, ReaderFixtures.defaultTemplates(),
+                ReaderFixtures.sequentialExtractor());
+        requestPool = Executors.newFixedThreadPool(requestThreads, new NamedThreadFactory("request-"));
+        readExecutors = new ReadExecutors(false, IO_THREADS, 0);
+        batchFileReader = new BatchFileReader(fileReader, ReaderFixtures.unlimitedAdmission(), 1, 1);
+        //The limits of production, with room in the queue for a whole burst. A streamed read that cannot start straight away is
+        // turned away, so a burst of blocking reads must never be more than the limit
+        final AdmissionControl admissionControl = new AdmissionControl(IO_THREADS, DataSize.ofMegabytes(256), REQUESTS,
+                Duration.ofMinutes(1), Duration.ofSeconds(5));
+        final ObjectMapper objectMapper = new ObjectMapper();
+        writer = objectMapper.writer();
+        final AsyncFileReader asyncFileReader = new AsyncFileReader(fileReader, resultCache, parseMetrics, readExecutors);
+        final JobQueue jobQueue = new JobQueue(fileReader, objectMapper, "", 1, Duration.ofHours(1), 1, Duration.ofSeconds(5));
+        appController = new AppController(fileReader, asyncFileReader, batchFileReader, objectMapper, resultCache, parseMetrics,
+                jobQueue, admissionControl, Duration.ofMinutes(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        requestPool.shutdownNow();
+        readExecutors.destroy();
+        batchFileReader.destroy();
+        for (AppRequestObject request : requests) {
+            Files.deleteIfExists(Path.of(request.getFilePath()));
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void blocking() throws Exception {
+        final List<Future<?>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            final AppRequestObject request = requests.get(i % requests.size());
+            responses.add(requestPool.submit(() -> {
+                appController.streamFileAndGiveResults(request).getBody().writeTo(OutputStream.nullOutputStream());
+                return null;
+            }));
+        }
+        for (Future<?> response : responses) {
+            response.get();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void async() throws Exception {
+        final List<CompletableFuture<Void>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            final AppRequestObject request = requests.get(i % requests.size());
+            final CompletableFuture<Void> response = new CompletableFuture<>();
+            responses.add(response);
+            requestPool.execute(() -> appController.readFileAndGiveResults(request).setResultHandler(result -> {
+                try {
+                    if (result instanceof Throwable) {
+                        throw new CompletionException((Throwable) result);
+                    }
+                    write((SampleModel) result);
+                    response.complete(null);
+                } catch (RuntimeException e) {
+                    response.completeExceptionally(e);
+                }
+            }));
+        }
+        for (CompletableFuture<Void> response : responses) {
+            response.get();
+        }
+    }
+
+    private void write(final SampleModel sampleModel) {
+        try {
+            writer.writeValue(OutputStream.nullOutputStream(), sampleModel);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void waitOnStorage() {
+        if (storageLatencyMillis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(storageLatencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,26 +1,241 @@
 package com.trial.pdfToJSONReader.controller;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.trial.pdfToJSONReader.entities.BatchResult;
+import com.trial.pdfToJSONReader.entities.CacheStatistics;
+import com.trial.pdfToJSONReader.entities.Job;
 import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.utils.AdmissionControl;
+import com.trial.pdfToJSONReader.utils.AsyncFileReader;
+import com.trial.pdfToJSONReader.utils.BatchFileReader;
 import com.trial.pdfToJSONReader.utils.FileReader;
+import com.trial.pdfToJSONReader.utils.JobQueue;
+import com.trial.pdfToJSONReader.utils.ParseMetrics;
+import com.trial.pdfToJSONReader.utils.ResultCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 @RestController
 @RequestMapping("/pdf")
 public class AppController {
 
+    private static final String NDJSON = MediaType.APPLICATION_NDJSON_VALUE;
+
+    //Every response that holds results can also be asked for as CBOR ("Accept: application/cbor"), see TimedCborHttpMessageConverter
+    private static final String JSON = MediaType.APPLICATION_JSON_VALUE;
+    private static final String CBOR = MediaType.APPLICATION_CBOR_VALUE;
+
     private final FileReader fileReader;
+    private final AsyncFileReader asyncFileReader;
+    private final BatchFileReader batchFileReader;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter withoutTransactionsWriter;
+    private final ResultCache resultCache;
+    private final ParseMetrics parseMetrics;
+    private final JobQueue jobQueue;
+    private final AdmissionControl admissionControl;
+    private final long readTimeoutMillis;
 
-    //I injected the file reader class
-    public AppController(FileReader fileReader) {
+    //I injected the file reader class, its asynchronous counterpart which reads files without holding the request thread, the batch reader which fans the file reader out over a pool of workers,
+    // the object mapper Spring uses, so the streamed lines look exactly like the other responses, the result cache, the metrics,
+    // the job queue which reads files in the background, and the admission control which decides whether a single read may start now
+    // (the batch reader asks it for every file itself, the job queue reads on a pool of its own, of a fixed size), and how long an asynchronous read may take
+    public AppController(FileReader fileReader, AsyncFileReader asyncFileReader, BatchFileReader batchFileReader,
+                         ObjectMapper objectMapper, ResultCache resultCache, ParseMetrics parseMetrics, JobQueue jobQueue,
+                         AdmissionControl admissionControl, @Value("${pdf.async.request-timeout:10m}") Duration readTimeout) {
         this.fileReader = fileReader;
+        this.asyncFileReader = asyncFileReader;
+        this.batchFileReader = batchFileReader;
+        this.objectMapper = objectMapper;
+        this.withoutTransactionsWriter = objectMapper.copy().addMixIn(SampleModel.class, WithoutTransactions.class).writer();
+        this.resultCache = resultCache;
+        this.parseMetrics = parseMetrics;
+        this.jobQueue = jobQueue;
+        this.admissionControl = admissionControl;
+        this.readTimeoutMillis = readTimeout.toMillis();
+    }
+
+    @PostMapping(value = "/read", produces = {JSON, CBOR}, consumes = "application/json")
+    //The request thread goes back to Tomcat as soon as the read is handed over: the file is read on the I/O executor and parsed on
+    // the parse executor (see ReadExecutors), and the response is written once the result is there
+    public DeferredResult<SampleModel> readFileAndGiveResults(@RequestBody AppRequestObject appRequestObject) {
+        //The timeout is set on this request only (past it, the answer is 503), the streamed responses are never timed out
+        final DeferredResult<SampleModel> result = new DeferredResult<>(readTimeoutMillis);
+        //Waiting for our turn does not hold the request thread either: the size of the file is looked up on the I/O executor, and
+        // the read starts once admission control hands over the permit. A request that times out before then gives up its place in the queue
+        final AtomicReference<CompletableFuture<AdmissionControl.Permit>> admission = new AtomicReference<>();
+        result.onTimeout(() -> {
+            final CompletableFuture<AdmissionControl.Permit> waiting = admission.get();
+            if (waiting != null) {
+                waiting.cancel(false);
+            }
+        });
+        asyncFileReader.size(appRequestObject.getFilePath()).thenCompose(bytes -> {
+            final CompletableFuture<AdmissionControl.Permit> waiting = admissionControl.acquireAsync(bytes);
+            admission.set(waiting);
+            //The request may have timed out while the size was looked up, before there was anything to cancel
+            if (result.isSetOrExpired()) {
+                waiting.cancel(false);
+            }
+            return waiting;
+        }).thenCompose(permit -> {
+            try {
+                return asyncFileReader.read(appRequestObject.getFilePath(), appRequestObject.getLoadMode())
+                        .whenComplete((sampleModel, e) -> permit.close());
+            } catch (RuntimeException e) {
+                permit.close();
+                throw e;
+            }
+        }).whenComplete((sampleModel, e) -> {
+            if (e == null) {
+                result.setResult(sampleModel);
+            } else {
+                //The error the read failed with, rather than the wrapper the future puts around it
+                result.setErrorResult(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        return result;
+    }
+
+    //Same file, but asked for with "Accept: application/x-ndjson": every transaction is written as one JSON line as soon as it is found,
+    // and the last line holds the rest of the advice (title, account, totals ...) without the transactions
+    @PostMapping(value = "/read", produces = NDJSON, consumes = "application/json")
+    public ResponseEntity<StreamingResponseBody> streamFileAndGiveResults(@RequestBody AppRequestObject appRequestObject) {
+        //The permit is only taken once the body runs, so a body that never runs (i.e the client went away) holds none.
+        // The body runs on a thread of the MVC async executor, which must not be parked in the queue, so the read either starts
+        // straight away or is turned away (429). Nothing is written before then, so a read turned away still gets its own status
+        return ndjson(outputStream -> {
+            final AdmissionControl.Permit permit = admissionControl.tryAcquire(new File(appRequestObject.getFilePath()).length());
+            try (permit) {
+                final SampleModel sampleModel = fileReader.read(appRequestObject.getFilePath(), appRequestObject.getLoadMode(),
+                        transaction -> writeLine(outputStream, objectMapper.writer(), transaction));
+                writeLine(outputStream, withoutTransactionsWriter, sampleModel);
+            }
+        });
+    }
+
+    //The document itself is the body of the request ("Content-Type: application/pdf"), so it does not have to be on this node first.
+    // The body is handed to PDFBox as it is, without being written to disk
+    @PostMapping(value = "/read", produces = {JSON, CBOR}, consumes = MediaType.APPLICATION_PDF_VALUE)
+    public SampleModel readUploadAndGiveResults(HttpServletRequest request) throws IOException {
+        //An upload of unknown length may be as large as we accept
+        final long length = request.getContentLengthLong();
+        final AdmissionControl.Permit permit = admissionControl.acquire(length >= 0 ? length : fileReader.getMaxUploadBytes());
+        try (permit; InputStream body = request.getInputStream()) {
+            return fileReader.read(body, request.getContentLengthLong());
+        }
+    }
+
+    //Same as above, for a form upload ("Content-Type: multipart/form-data") with the document in the "file" part
+    @PostMapping(value = "/read", produces = {JSON, CBOR}, consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public SampleModel readMultipartAndGiveResults(@RequestParam("file") MultipartFile file) throws IOException {
+        final AdmissionControl.Permit permit = admissionControl.acquire(file.getSize());
+        try (permit; InputStream body = file.getInputStream()) {
+            return fileReader.read(body, file.getSize());
+        }
+    }
+
+    @PostMapping(value = "/read/batch", produces = {JSON, CBOR}, consumes = "application/json")
+    public BatchResult readFilesAndGiveResults(@RequestBody BatchRequestObject batchRequestObject) {
+        return batchFileReader.read(resolvePaths(batchRequestObject));
+    }
+
+    //Same batch, but asked for with "Accept: application/x-ndjson": every file is written as one JSON line as soon as it is read,
+    // rather than gathering the whole batch in memory and writing it at the end
+    @PostMapping(value = "/read/batch", produces = NDJSON, consumes = "application/json")
+    public ResponseEntity<StreamingResponseBody> streamFilesAndGiveResults(@RequestBody BatchRequestObject batchRequestObject) {
+        final List<String> paths = resolvePaths(batchRequestObject);
+        return ndjson(outputStream -> batchFileReader.stream(paths,
+                fileResult -> writeLine(outputStream, objectMapper.writer(), fileResult)));
+    }
+
+    //For files that take longer to read than the caller can wait: the job is queued and given back straight away (202 Accepted),
+    // and its state (and result, once it is done) is then polled at the URL in the Location header
+    @PostMapping(value = "/jobs", produces = {JSON, CBOR}, consumes = "application/json")
+    public ResponseEntity<Job> submitJob(@RequestBody JobRequestObject jobRequestObject) {
+        final Job job = jobQueue.submit(jobRequestObject.getFilePath(), jobRequestObject.getLoadMode(), jobRequestObject.getPriority());
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @GetMapping(value = "/jobs/{id}", produces = {JSON, CBOR})
+    public Job getJob(@PathVariable String id) {
+        final Job job = jobQueue.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No job " + id);
+        }
+        return job;
+    }
+
+    @GetMapping(value = "/cache/statistics", produces = "application/json")
+    public CacheStatistics cacheStatistics() {
+        return resultCache.statistics();
+    }
+
+    //The files of a batch are the paths listed explicitly, plus every file in the directory (if any) that matches the glob
+    private List<String> resolvePaths(BatchRequestObject batchRequestObject) {
+        final List<String> paths = new ArrayList<>();
+        if (batchRequestObject.getFilePaths() != null) {
+            paths.addAll(batchRequestObject.getFilePaths());
+        }
+        if (batchRequestObject.getDirectory() != null) {
+            paths.addAll(batchFileReader.resolve(batchRequestObject.getDirectory(), batchRequestObject.getGlob()));
+        }
+        return paths;
+    }
+
+    //A streamed body does not get its content type from "produces", so we set it ourselves
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    //Writes the value as a single JSON line, and sends it to the client straight away
+    private void writeLine(OutputStream outputStream, ObjectWriter writer, Object value) {
+        try {
+            final long start = System.nanoTime();
+            final byte[] bytes = writer.writeValueAsBytes(value);
+            parseMetrics.serialized(System.nanoTime() - start);
+            outputStream.write(bytes);
+            outputStream.write('\n');
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    @PostMapping(value = "/read", produces = "application/json", consumes = "application/json")
-    public SampleModel readFileAndGiveResults(@RequestBody AppRequestObject appRequestObject) {
-        return fileReader.read(appRequestObject.getFilePath());
+    //Leaves the transactions out of the last line of a streamed file, they have already been written one by one
+    @JsonIgnoreProperties("transactions")
+    private abstract static class WithoutTransactions {
     }
 }
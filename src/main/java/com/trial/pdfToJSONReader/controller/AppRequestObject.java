@@ -1,10 +1,15 @@
 package com.trial.pdfToJSONReader.controller;
 
+import com.trial.pdfToJSONReader.utils.LoadMode;
+
 public class AppRequestObject {
 
     //Please specify the full file pathName, i.e "C:/Users/Adey Babs/Downloads/sample.pdf"
     private String filePath = "C:/Users/Adey Babs/Downloads/sample.pdf";
 
+    //Optionally, how the document is held while it is read, i.e "MIXED" for a very large statement (see LoadMode)
+    private LoadMode loadMode;
+
     public AppRequestObject() {
     }
 
@@ -19,4 +24,12 @@ public class AppRequestObject {
     public void setFilePath(String filePath) {
         this.filePath = filePath;
     }
+
+    public LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    public void setLoadMode(LoadMode loadMode) {
+        this.loadMode = loadMode;
+    }
 }
@@ -0,0 +1,44 @@
+package com.trial.pdfToJSONReader.controller;
+
+import java.util.List;
+
+public class BatchRequestObject {
+
+    //Either list the full file pathNames, i.e ["C:/Users/Adey Babs/Downloads/sample.pdf", ...]
+    private List<String> filePaths;
+
+    //Or give a directory and a glob, i.e "C:/Users/Adey Babs/Downloads" and "*.pdf", every matching file will be read
+    private String directory;
+    private String glob = "*.pdf";
+
+    public BatchRequestObject() {
+    }
+
+    public BatchRequestObject(List<String> filePaths) {
+        this.filePaths = filePaths;
+    }
+
+    public List<String> getFilePaths() {
+        return filePaths;
+    }
+
+    public void setFilePaths(List<String> filePaths) {
+        this.filePaths = filePaths;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    public void setGlob(String glob) {
+        this.glob = glob;
+    }
+}
@@ -0,0 +1,42 @@
+package com.trial.pdfToJSONReader.controller;
+
+import com.trial.pdfToJSONReader.utils.LoadMode;
+
+public class JobRequestObject {
+
+    //Please specify the full file pathName, i.e "C:/Users/Adey Babs/Downloads/sample.pdf"
+    private String filePath;
+
+    //Optionally, how the document is held while it is read, i.e "MIXED" for a very large statement (see LoadMode)
+    private LoadMode loadMode;
+
+    //Optionally, jobs with a higher priority are read before the ones with a lower priority (0 by default)
+    private int priority;
+
+    public JobRequestObject() {
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    public void setLoadMode(LoadMode loadMode) {
+        this.loadMode = loadMode;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+}
@@ -0,0 +1,24 @@
+package com.trial.pdfToJSONReader.controller;
+
+import com.trial.pdfToJSONReader.utils.OverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * A read turned away by the admission control is answered straight away with a Retry-After header: 429 (Too Many Requests)
+ * when the queue of waiting reads is full, and 503 (Service Unavailable) when the read waited in it for too long.
+ */
+@RestControllerAdvice
+public class OverloadExceptionHandler {
+
+    @ExceptionHandler(OverloadedException.class)
+    public void overloaded(OverloadedException e, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        response.sendError(e.isQueueFull() ? HttpStatus.TOO_MANY_REQUESTS.value() : HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+    }
+}
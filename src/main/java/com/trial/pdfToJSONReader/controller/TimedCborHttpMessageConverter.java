@@ -0,0 +1,43 @@
+package com.trial.pdfToJSONReader.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.trial.pdfToJSONReader.utils.ParseMetrics;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * This is the CBOR (RFC 8949) converter Spring uses when a client asks for "Accept: application/cbor", for consumers reading
+ * a lot of transactions: the same model as the JSON, but binary, so it is smaller and cheaper to read. Amounts are written as
+ * CBOR decimal fractions (an integer mantissa and a base 10 exponent), so they come back with exactly the value and scale they had. <br>
+ * It is built from the object mapper settings Spring uses for JSON, and times writing our responses just like
+ * {@link TimedJsonHttpMessageConverter}.
+ */
+@Component
+public class TimedCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    private final ParseMetrics parseMetrics;
+
+    public TimedCborHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder, ParseMetrics parseMetrics) {
+        super(objectMapperBuilder.factory(new CBORFactory()).build());
+        this.parseMetrics = parseMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!TimedJsonHttpMessageConverter.isTimed(object)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            parseMetrics.serialized(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.trial.pdfToJSONReader.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.BatchResult;
+import com.trial.pdfToJSONReader.entities.CacheStatistics;
+import com.trial.pdfToJSONReader.entities.FileResult;
+import com.trial.pdfToJSONReader.entities.Job;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.utils.ParseMetrics;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * This is the JSON converter Spring uses for our responses (it takes the place of the default one), it only adds a timer
+ * around writing every response of our endpoints (results, batches, jobs, cache statistics), which is the serialize stage of {@link ParseMetrics}.
+ */
+@Component
+public class TimedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final ParseMetrics parseMetrics;
+
+    public TimedJsonHttpMessageConverter(ObjectMapper objectMapper, ParseMetrics parseMetrics) {
+        super(objectMapper);
+        this.parseMetrics = parseMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!isTimed(object)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            parseMetrics.serialized(System.nanoTime() - start);
+        }
+    }
+
+    //The responses of our own endpoints, rather than the ones of Spring (i.e its error responses)
+    static boolean isTimed(Object object) {
+        return object instanceof SampleModel || object instanceof BatchResult || object instanceof FileResult
+                || object instanceof Job || object instanceof CacheStatistics;
+    }
+}
@@ -0,0 +1,23 @@
+package com.trial.pdfToJSONReader.controller;
+
+import com.trial.pdfToJSONReader.utils.UploadTooLargeException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * An upload that is too large is the caller's fault, so it is answered with 413 (Payload Too Large) rather than 500.
+ * This covers both our own limit on request bodies and Spring's limit on multipart files, which is configured to the same size.
+ */
+@RestControllerAdvice
+public class UploadExceptionHandler {
+
+    @ExceptionHandler({UploadTooLargeException.class, MaxUploadSizeExceededException.class})
+    public void uploadTooLarge(Exception e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), e.getMessage());
+    }
+}
@@ -0,0 +1,69 @@
+package com.trial.pdfToJSONReader.entities;
+
+import java.util.List;
+
+//This is what we give back after reading a batch of files: the individual results (in the order the files were asked for)
+//and a few aggregate numbers so the caller can see how fast the batch went.
+
+public class BatchResult {
+
+    private List<FileResult> files;
+    private int totalFiles;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private double filesPerSecond;
+
+    //Default constructor
+    public BatchResult() {
+    }
+
+    //Getters and setters
+    public List<FileResult> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<FileResult> files) {
+        this.files = files;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public void setTotalFiles(int totalFiles) {
+        this.totalFiles = totalFiles;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getFilesPerSecond() {
+        return filesPerSecond;
+    }
+
+    public void setFilesPerSecond(double filesPerSecond) {
+        this.filesPerSecond = filesPerSecond;
+    }
+}
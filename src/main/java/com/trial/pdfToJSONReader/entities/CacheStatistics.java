@@ -0,0 +1,67 @@
+package com.trial.pdfToJSONReader.entities;
+
+//This data structure shows how well the result cache is doing: how often a file was found in it (in memory or on disk),
+//how often it had to be read, and how many results were thrown out because the cache was full or they were too old.
+
+public class CacheStatistics {
+
+    private boolean enabled;
+    private long hits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+    private int size;
+
+    //Default constructor
+    public CacheStatistics() {
+    }
+
+    //Getters and setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getDiskHits() {
+        return diskHits;
+    }
+
+    public void setDiskHits(long diskHits) {
+        this.diskHits = diskHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,59 @@
+package com.trial.pdfToJSONReader.entities;
+
+//This data structure represents the outcome of reading a single file as part of a batch.
+//Exactly one of result or error is set, so one bad file never hides the results of the others.
+
+public class FileResult {
+
+    private String filePath;
+    private SampleModel result;
+    private String error;
+    private long elapsedMillis;
+
+    public FileResult() {
+    }
+
+    //All args constructor
+    public FileResult(String filePath, SampleModel result, String error, long elapsedMillis) {
+        this.filePath = filePath;
+        this.result = result;
+        this.error = error;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public SampleModel getResult() {
+        return result;
+    }
+
+    public void setResult(SampleModel result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -0,0 +1,127 @@
+package com.trial.pdfToJSONReader.entities;
+
+import com.trial.pdfToJSONReader.utils.LoadMode;
+
+//This data structure represents a file handed to us to be read in the background (see POST /pdf/jobs).
+//The times are in milliseconds since the epoch (0 until they happen), and the result or the error is only set once the job is done.
+
+public class Job {
+
+    private String id;
+    private String filePath;
+    private LoadMode loadMode;
+    private int priority;
+    private Status status;
+    private long submittedAt;
+    private long startedAt;
+    private long finishedAt;
+    private SampleModel result;
+    private String error;
+
+    //Default constructor
+    public Job() {
+    }
+
+    //Copy constructor, a job is never changed once it has been handed out, a copy is changed instead
+    public Job(Job job) {
+        this.id = job.id;
+        this.filePath = job.filePath;
+        this.loadMode = job.loadMode;
+        this.priority = job.priority;
+        this.status = job.status;
+        this.submittedAt = job.submittedAt;
+        this.startedAt = job.startedAt;
+        this.finishedAt = job.finishedAt;
+        this.result = job.result;
+        this.error = job.error;
+    }
+
+    //Getters and setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    public void setLoadMode(LoadMode loadMode) {
+        this.loadMode = loadMode;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(long submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public SampleModel getResult() {
+        return result;
+    }
+
+    public void setResult(SampleModel result) {
+        this.result = result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+}
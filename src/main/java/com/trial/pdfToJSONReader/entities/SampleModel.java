@@ -1,6 +1,7 @@
 package com.trial.pdfToJSONReader.entities;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -17,11 +18,32 @@ public class SampleModel {
     private BigDecimal totalCredit;
     private BigDecimal totalDebit;
     private BigDecimal overallNetPosition;
+    private TotalsValidation validation;
 
     //Default constructor
     public SampleModel() {
     }
 
+    //Copy constructor, the transactions and the validation are copied too, so changing the copy never changes the original
+    public SampleModel(SampleModel sampleModel) {
+        this.title = sampleModel.title;
+        this.accountNumber = sampleModel.accountNumber;
+        this.metaInformation = sampleModel.metaInformation;
+        this.openingCollateral = sampleModel.openingCollateral;
+        if (sampleModel.transactions != null) {
+            this.transactions = new ArrayList<>(sampleModel.transactions.size());
+            for (Transaction transaction : sampleModel.transactions) {
+                this.transactions.add(new Transaction(transaction));
+            }
+        }
+        this.debitCurrency = sampleModel.debitCurrency;
+        this.creditCurrency = sampleModel.creditCurrency;
+        this.totalCredit = sampleModel.totalCredit;
+        this.totalDebit = sampleModel.totalDebit;
+        this.overallNetPosition = sampleModel.overallNetPosition;
+        this.validation = sampleModel.validation == null ? null : new TotalsValidation(sampleModel.validation);
+    }
+
     //Getters and setters
     public String getTitle() {
         return title;
@@ -102,4 +124,13 @@ public class SampleModel {
     public void setOverallNetPosition(BigDecimal overallNetPosition) {
         this.overallNetPosition = overallNetPosition;
     }
+
+    //The totals above checked against the transactions, so a wrong extraction is caught without adding up the transactions again
+    public TotalsValidation getValidation() {
+        return validation;
+    }
+
+    public void setValidation(TotalsValidation validation) {
+        this.validation = validation;
+    }
 }
@@ -0,0 +1,119 @@
+package com.trial.pdfToJSONReader.entities;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+//This data structure holds what the transactions of an advice add up to, checked against the totals printed at the bottom of it.
+//It is valid when every total the advice states matches the transactions, otherwise every total that does not is listed as a mismatch.
+
+public class TotalsValidation {
+
+    private boolean valid;
+    private BigDecimal transactionDebit;
+    private BigDecimal transactionCredit;
+    //Credit minus debit, so it is positive when the advice should say CR and negative when it should say DR
+    private BigDecimal transactionNetPosition;
+    private List<Mismatch> mismatches = new ArrayList<>();
+
+    public TotalsValidation() {
+    }
+
+    //Copy constructor, the mismatches are copied too
+    public TotalsValidation(TotalsValidation validation) {
+        this.valid = validation.valid;
+        this.transactionDebit = validation.transactionDebit;
+        this.transactionCredit = validation.transactionCredit;
+        this.transactionNetPosition = validation.transactionNetPosition;
+        if (validation.mismatches != null) {
+            this.mismatches = new ArrayList<>(validation.mismatches.size());
+            for (Mismatch mismatch : validation.mismatches) {
+                this.mismatches.add(new Mismatch(mismatch.field, mismatch.stated, mismatch.computed));
+            }
+        } else {
+            this.mismatches = null;
+        }
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public BigDecimal getTransactionDebit() {
+        return transactionDebit;
+    }
+
+    public void setTransactionDebit(BigDecimal transactionDebit) {
+        this.transactionDebit = transactionDebit;
+    }
+
+    public BigDecimal getTransactionCredit() {
+        return transactionCredit;
+    }
+
+    public void setTransactionCredit(BigDecimal transactionCredit) {
+        this.transactionCredit = transactionCredit;
+    }
+
+    public BigDecimal getTransactionNetPosition() {
+        return transactionNetPosition;
+    }
+
+    public void setTransactionNetPosition(BigDecimal transactionNetPosition) {
+        this.transactionNetPosition = transactionNetPosition;
+    }
+
+    public List<Mismatch> getMismatches() {
+        return mismatches;
+    }
+
+    public void setMismatches(List<Mismatch> mismatches) {
+        this.mismatches = mismatches;
+    }
+
+    //A total printed on the advice (i.e totalDebit) that is not what its transactions add up to
+    public static class Mismatch {
+
+        private String field;
+        private BigDecimal stated;
+        private BigDecimal computed;
+
+        public Mismatch() {
+        }
+
+        //All args constructor
+        public Mismatch(String field, BigDecimal stated, BigDecimal computed) {
+            this.field = field;
+            this.stated = stated;
+            this.computed = computed;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public void setField(String field) {
+            this.field = field;
+        }
+
+        public BigDecimal getStated() {
+            return stated;
+        }
+
+        public void setStated(BigDecimal stated) {
+            this.stated = stated;
+        }
+
+        public BigDecimal getComputed() {
+            return computed;
+        }
+
+        public void setComputed(BigDecimal computed) {
+            this.computed = computed;
+        }
+    }
+}
@@ -25,6 +25,12 @@ public class Transaction {
         this.creditAmount = creditAmount;
     }
 
+    //Copy constructor
+    public Transaction(Transaction transaction) {
+        this(transaction.serialNumber, transaction.paymentScheme, transaction.SchemeType,
+                transaction.debitAmount, transaction.creditAmount);
+    }
+
     public int getSerialNumber() {
         return serialNumber;
     }
@@ -0,0 +1,316 @@
+package com.trial.pdfToJSONReader.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This decides whether a read may start, so a burst of requests cannot have more documents open at once than the node can hold. <br>
+ * A read takes a {@link Permit} before it starts and closes it once it is done. A permit is only given while fewer than the configured
+ * number of reads are running, and while the documents being read (counted by the size of their file or upload) stay under the
+ * configured number of bytes. A document larger than that on its own is still read, but only once nothing else is. <br>
+ * Reads that cannot start straight away wait in a bounded queue, first come first served. When the queue is full a read is turned
+ * away at once, and a read that waited for longer than the configured timeout is turned away too, both with an {@link OverloadedException}
+ * telling the caller when to try again, so the node sheds the load it cannot take rather than running out of memory. <br>
+ * A caller that must not block while it waits (i.e a request thread) uses {@link #acquireAsync(long)} instead, whose permit comes
+ * in a future, from the same queue, and a caller that cannot wait at all uses {@link #tryAcquire(long)}. <br>
+ * Every read a caller waits on goes through here, the files of a batch included. The {@link JobQueue} and the {@link DirectoryWatcher}
+ * do not: they are background work, drained by a fixed number of workers of their own, so they never have more documents open than
+ * that however much is queued, and a job or a dropped file turned away would only have to be retried by us.
+ */
+@Service
+public class AdmissionControl implements MeterBinder {
+
+    private final int maxConcurrent;
+    private final long maxInFlightBytes;
+    private final int queueCapacity;
+    private final long queueTimeoutNanos;
+    private final long retryAfterSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    //One ticket per read waiting for its turn, in the order they came in. Only the first one may start
+    private final Deque<Ticket> waiting = new ArrayDeque<>();
+
+    //Only changed while holding the lock, volatile so the metrics can read them without it
+    private volatile int running;
+    private volatile long inFlightBytes;
+    private volatile int queueDepth;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+    private final AtomicLong rejectedBusy = new AtomicLong();
+
+    public AdmissionControl(@Value("${pdf.admission.max-concurrent:64}") final int maxConcurrent,
+                            @Value("${pdf.admission.max-in-flight:256MB}") final DataSize maxInFlight,
+                            @Value("${pdf.admission.queue-capacity:32}") final int queueCapacity,
+                            @Value("${pdf.admission.queue-timeout:10s}") final Duration queueTimeout,
+                            @Value("${pdf.admission.retry-after:5s}") final Duration retryAfter) {
+        //Not one per core: a permit is held while the document is loaded too, which is mostly waiting on storage, and the CPU work is
+        // already bounded by the parse executor. If no number of reads is configured, only their bytes are
+        this.maxConcurrent = maxConcurrent > 0 ? maxConcurrent : Integer.MAX_VALUE;
+        this.maxInFlightBytes = maxInFlight.toBytes();
+        this.queueCapacity = Math.max(0, queueCapacity);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        //Retry-After is in whole seconds, and never 0, which would invite the caller to come back straight away
+        this.retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+
+    /**
+     * This method waits until the read of a document of the given size may start.
+     * @param bytes This is the size of the document (its file, or its upload), 0 if it is not known
+     * @return {@link Permit}. The permit to read the document, which must be closed once it is read, ideally in a try-with-resources.
+     * @throws OverloadedException if the queue is full, or the read could not start within the queue timeout
+     */
+    public Permit acquire(final long bytes) {
+        final long cost = Math.max(0, bytes);
+        List<Ticket> letIn = null;
+        lock.lock();
+        try {
+            if (waiting.isEmpty() && fits(cost)) {
+                return admit(cost);
+            }
+            final Ticket ticket = enqueue(cost, null);
+            try {
+                long remaining = queueTimeoutNanos;
+                while (waiting.peekFirst() != ticket || !fits(cost)) {
+                    if (remaining <= 0) {
+                        rejectedTimeout.incrementAndGet();
+                        throw new OverloadedException(false, retryAfterSeconds);
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                return admit(cost);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OverloadedException(false, retryAfterSeconds);
+            } finally {
+                //Whether we start or give up, the read behind us in the queue is now the first one, and may be able to start
+                waiting.remove(ticket);
+                letIn = admitWaiting();
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+            grant(letIn);
+        }
+    }
+
+    /**
+     * This method is {@link #acquire(long)} for a caller that cannot wait at all (i.e the thread writing a streamed response):
+     * the read either starts straight away, or is turned away.
+     * @param bytes This is the size of the document (its file, or its upload), 0 if it is not known
+     * @return {@link Permit}. The permit to read the document, which must be closed once it is read, ideally in a try-with-resources.
+     * @throws OverloadedException if the read cannot start now, because other reads are waiting or there is no room for it
+     */
+    public Permit tryAcquire(final long bytes) {
+        final long cost = Math.max(0, bytes);
+        lock.lock();
+        try {
+            //Reads already waiting go first, so we do not take the place of the one at the front of the queue
+            if (waiting.isEmpty() && fits(cost)) {
+                return admit(cost);
+            }
+            rejectedBusy.incrementAndGet();
+            throw new OverloadedException(true, retryAfterSeconds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This method is {@link #acquire(long)} without the wait: the read takes its place in the same queue, and the permit is handed over
+     * once its turn comes, so no thread is held in the meantime.
+     * @param bytes This is the size of the document (its file, or its upload), 0 if it is not known
+     * @return a future of the {@link Permit}, which must be closed once the document is read. It fails with an {@link OverloadedException}
+     * if the queue is full, or the read could not start within the queue timeout. Cancelling it gives up the place in the queue.
+     */
+    public CompletableFuture<Permit> acquireAsync(final long bytes) {
+        final long cost = Math.max(0, bytes);
+        final Ticket ticket;
+        lock.lock();
+        try {
+            if (waiting.isEmpty() && fits(cost)) {
+                return CompletableFuture.completedFuture(admit(cost));
+            }
+            ticket = enqueue(cost, new CompletableFuture<>());
+        } catch (OverloadedException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.unlock();
+        }
+        CompletableFuture.delayedExecutor(queueTimeoutNanos, TimeUnit.NANOSECONDS).execute(() -> withdraw(ticket, true));
+        ticket.permit.whenComplete((permit, e) -> {
+            if (e instanceof CancellationException) {
+                withdraw(ticket, false);
+            }
+        });
+        return ticket.permit;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("pdf.admission.running", this, admission -> admission.running).description("Reads running right now")
+                .register(registry);
+        Gauge.builder("pdf.admission.queue.depth", this, admission -> admission.queueDepth)
+                .description("Reads waiting for their turn").register(registry);
+        Gauge.builder("pdf.admission.in.flight.bytes", this, admission -> admission.inFlightBytes)
+                .description("Size of the documents being read right now").baseUnit("bytes").register(registry);
+        FunctionCounter.builder("pdf.admission.admitted", admitted, AtomicLong::get).description("Reads let in").register(registry);
+        FunctionCounter.builder("pdf.admission.rejected", rejectedQueueFull, AtomicLong::get)
+                .description("Reads turned away").tag("reason", "queue-full").register(registry);
+        FunctionCounter.builder("pdf.admission.rejected", rejectedTimeout, AtomicLong::get)
+                .description("Reads turned away").tag("reason", "timeout").register(registry);
+        FunctionCounter.builder("pdf.admission.rejected", rejectedBusy, AtomicLong::get)
+                .description("Reads turned away").tag("reason", "busy").register(registry);
+    }
+
+    //A read that is alone may take any size, otherwise the bytes of every running read must stay under the maximum
+    private boolean fits(final long cost) {
+        return running < maxConcurrent && (running == 0 || cost <= maxInFlightBytes - inFlightBytes);
+    }
+
+    //Called with the lock held
+    private Ticket enqueue(final long cost, final CompletableFuture<Permit> permit) {
+        if (waiting.size() >= queueCapacity) {
+            rejectedQueueFull.incrementAndGet();
+            throw new OverloadedException(true, retryAfterSeconds);
+        }
+        final Ticket ticket = new Ticket(cost, permit);
+        waiting.addLast(ticket);
+        queueDepth = waiting.size();
+        return ticket;
+    }
+
+    private Permit admit(final long cost) {
+        running++;
+        inFlightBytes += cost;
+        admitted.incrementAndGet();
+        return new Permit(cost);
+    }
+
+    /**
+     * Lets in the reads at the front of the queue that wait without a thread of their own (see {@link #acquireAsync(long)}),
+     * for as long as they fit. Called with the lock held, their futures are then completed by {@link #grant(List)} once it is let go,
+     * so whatever the callers chained on them does not run under our lock.
+     */
+    private List<Ticket> admitWaiting() {
+        List<Ticket> letIn = null;
+        Ticket first;
+        while ((first = waiting.peekFirst()) != null && first.permit != null && fits(first.cost)) {
+            waiting.removeFirst();
+            first.admitted = admit(first.cost);
+            if (letIn == null) {
+                letIn = new ArrayList<>();
+            }
+            letIn.add(first);
+        }
+        queueDepth = waiting.size();
+        return letIn;
+    }
+
+    private static void grant(final List<Ticket> letIn) {
+        if (letIn == null) {
+            return;
+        }
+        for (Ticket ticket : letIn) {
+            //Nobody is going to use a permit whose future was cancelled in the meantime
+            if (!ticket.permit.complete(ticket.admitted)) {
+                ticket.admitted.close();
+            }
+        }
+    }
+
+    //Takes a read that waits without a thread out of the queue, because it waited for too long, or because its caller gave up
+    private void withdraw(final Ticket ticket, final boolean timedOut) {
+        final List<Ticket> letIn;
+        lock.lock();
+        try {
+            if (!waiting.remove(ticket)) {
+                //It was let in (or withdrawn) already
+                return;
+            }
+            if (timedOut) {
+                rejectedTimeout.incrementAndGet();
+            }
+            letIn = admitWaiting();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (timedOut) {
+            ticket.permit.completeExceptionally(new OverloadedException(false, retryAfterSeconds));
+        }
+        grant(letIn);
+    }
+
+    private void release(final long cost) {
+        final List<Ticket> letIn;
+        lock.lock();
+        try {
+            running--;
+            inFlightBytes -= cost;
+            letIn = admitWaiting();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        grant(letIn);
+    }
+
+    /**
+     * A read waiting for its turn.
+     */
+    private static final class Ticket {
+
+        private final long cost;
+        //Null for a read waiting on its own thread in acquire(...)
+        private final CompletableFuture<Permit> permit;
+        //The permit of a read let in from the queue, until its future is completed
+        private Permit admitted;
+
+        private Ticket(final long cost, final CompletableFuture<Permit> permit) {
+            this.cost = cost;
+            this.permit = permit;
+        }
+    }
+
+    /**
+     * The right to read one document, given back by closing it (closing it more than once does nothing).
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long cost;
+        private boolean closed;
+
+        private Permit(final long cost) {
+            this.cost = cost;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(cost);
+            }
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.entities.TotalsValidation;
+import com.trial.pdfToJSONReader.entities.Transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This turns the text read from a settlement advice into a {@link SampleModel}. <br>
+ * The text is walked over exactly once, line by line, and every line is worked on through offsets into the text rather than
+ * through String.split or regular expressions, so the only Strings we create are the ones that end up in the result.
+ * Lines are pushed into the parser one at a time with {@link #line(CharSequence, int, int)}, and the result is taken with {@link #finish()}.
+ * Every transaction is also handed to an optional consumer as soon as it is recognised, so the caller can work on it
+ * while the rest of the document is still being read. <br>
+ * Which line holds what is declared by a {@link LayoutTemplate}, picked from the {@link LayoutTemplates} while the first lines are read
+ * (they are held back until then, and then worked on with the template picked). <br>
+ * The debit and credit amounts of the transactions are added up as they are found, and once the footer is read the totals
+ * and the net position it states are checked against them, in the same pass, see {@link SampleModel#getValidation()}.
+ * A parser holds the state of a single document, so a new one is needed for every document.
+ */
+public class AdviceParser {
+
+    /**
+     * Each line of the text is seperated by a new line, this means every data in the pdf actually reside in a separate line of its own.
+     */
+    private static final char LINE_SEPARATOR = '\n';
+
+    /**
+     * This is the list of supported currencies as defined in {@link Transaction.Currency}. <br>
+     * We use these enums to ensure that we only take values of currencies we are interested in when extracting them form the file.
+     */
+    private static final Transaction.Currency[] CURRENCIES = Transaction.Currency.values();
+
+    private final SampleModel sampleModel = new SampleModel();
+    private final StringBuilder metaBuilder = new StringBuilder();
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final LineTokenizer tokenizer = new LineTokenizer();
+    private final Consumer<Transaction> transactionConsumer;
+
+    //What the transactions found so far add up to
+    private final ScaledSum debitSum = new ScaledSum();
+    private final ScaledSum creditSum = new ScaledSum();
+
+    //The side of the overall net position, 1 for "CR", -1 for "DR" and 0 if the advice does not say
+    private int netPositionSide;
+
+    //Where the field last found by locate(...) starts and ends in its line
+    private int fieldStart;
+    private int fieldEnd;
+
+    //Picks the template of the document while its first lines are read, until then these lines are held back (copied) here
+    private final LayoutTemplates.Selection selection;
+    private final StringBuilder[] fingerprintText;
+    private LayoutTemplate template;
+
+    //The lines after the header we are holding back until we know whether they are transactions or part of the footer.
+    // Since we only know a line is one of the last few once as many lines have come after it, we hold back as many lines as the footer has.
+    // They are copied, so the caller is free to reuse the text it pushed once line() returns
+    private StringBuilder[] heldText;
+    private int[] heldIndex;
+    private int heldFirst;
+    private int heldCount;
+
+    //The index the next line will have
+    private int index;
+
+    //Empty lines we have seen but not yet counted, empty lines at the very end of the text are not lines of the document
+    private int pendingEmptyLines;
+
+    //Blank lines at the start we have seen but not yet worked on, if the whole document turns out to be blank there is nothing to read
+    private int leadingBlankLines;
+    private boolean sawText;
+
+    public AdviceParser() {
+        this(transaction -> { });
+    }
+
+    /**
+     * @param transactionConsumer This receives every transaction as soon as it is recognised, in the order of the document
+     */
+    public AdviceParser(final Consumer<Transaction> transactionConsumer) {
+        this(LayoutTemplates.defaults(), transactionConsumer);
+    }
+
+    /**
+     * @param layoutTemplates These are the layouts the document may follow
+     * @param transactionConsumer This receives every transaction as soon as it is recognised, in the order of the document
+     */
+    public AdviceParser(final LayoutTemplates layoutTemplates, final Consumer<Transaction> transactionConsumer) {
+        this.transactionConsumer = transactionConsumer;
+        this.selection = layoutTemplates.select();
+        this.fingerprintText = new StringBuilder[layoutTemplates.fingerprintLines()];
+    }
+
+    /**
+     * Reads the whole text of a document in a single pass.
+     * @param text The text extracted from the pdf file
+     * @return {@link SampleModel}. This sample model is the JSON representation of the text.
+     */
+    public static SampleModel parse(final CharSequence text) {
+        return parse(text, LayoutTemplates.defaults());
+    }
+
+    /**
+     * Same as {@link #parse(CharSequence)}, with the layouts the document may follow.
+     */
+    public static SampleModel parse(final CharSequence text, final LayoutTemplates layoutTemplates) {
+        final AdviceParser parser = new AdviceParser(layoutTemplates, transaction -> { });
+        final int length = text.length();
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == LINE_SEPARATOR) {
+                parser.line(text, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        parser.line(text, lineStart, length);
+        return parser.finish();
+    }
+
+    /**
+     * Pushes the next line of the document into the parser. The parser keeps no reference to the text once this returns.
+     * @param text The text holding the line
+     * @param start Where the line starts in the text (inclusive)
+     * @param end Where the line ends in the text (exclusive), without the line separator
+     */
+    public void line(final CharSequence text, final int start, final int end) {
+        if (start == end) {
+            pendingEmptyLines++;
+            return;
+        }
+        for (; pendingEmptyLines > 0; pendingEmptyLines--) {
+            trimmed("", 0, 0);
+        }
+        trimmed(text, start, end);
+    }
+
+    /**
+     * Works on the lines still held back, now that we know they are the last lines of the document.
+     * @return {@link SampleModel}. This sample model is the JSON representation we get after reading all the lines pushed.
+     */
+    public SampleModel finish() {
+        if (!sawText) {
+            //In case after reading the file, there are no information, just give back an empty result
+            return new SampleModel();
+        }
+        if (template == null) {
+            //The document ended before we could tell its layout from its first lines
+            use(selection.finish());
+        }
+
+        //Whatever we still hold back are the last lines of the document, and the footer of the template says what each of them holds
+        // (for the NIBSS advice: the very last one is the closing line, the one before it holds the overall net position,
+        // and the one before that the total debit and total credit)
+        for (int remaining = heldCount; remaining > 0; remaining--) {
+            final int slot = heldFirst;
+            heldFirst = (heldFirst + 1) % heldText.length;
+            heldCount--;
+            final StringBuilder held = heldText[slot];
+            apply(template.footerRole(remaining), held, 0, held.length(), heldIndex[slot]);
+        }
+
+        //Lastly, we add the list of transactions in the JSON model we are building, and check the totals against them
+        sampleModel.setTransactions(transactions);
+        sampleModel.setMetaInformation(metaBuilder.toString());
+        sampleModel.setValidation(validate());
+        return sampleModel;
+    }
+
+    /**
+     * @return the number of lines of the document worked on so far
+     */
+    public int lines() {
+        return index;
+    }
+
+    /**
+     * @return the layout of the document, or null if we have not seen enough of it yet to know
+     */
+    public LayoutTemplate template() {
+        return template;
+    }
+
+    private void trimmed(final CharSequence text, final int start, final int end) {
+        //We trim the line the way String.trim does, leaving out every space or control character at both ends
+        int s = start;
+        int e = end;
+        while (s < e && text.charAt(s) <= ' ') {
+            s++;
+        }
+        while (e > s && text.charAt(e - 1) <= ' ') {
+            e--;
+        }
+
+        if (!sawText) {
+            if (s == e) {
+                leadingBlankLines++;
+                return;
+            }
+            //Now that we know the document is not blank, we work on the blank lines we skipped over before this one
+            sawText = true;
+            for (; leadingBlankLines > 0; leadingBlankLines--) {
+                dispatch("", 0, 0, index++);
+            }
+        }
+        dispatch(text, s, e, index++);
+    }
+
+    /*
+    Every line has a unique index in the document, and with this information, we can do what we please with a line.
+    The template of the document says what the first lines (the header) and the last lines (the footer) hold,
+    see LayoutTemplate.NIBSS_SETTLEMENT_ADVICE for the lines of the sample document. Every line in between is a transaction.
+     */
+    private void dispatch(final CharSequence text, final int start, final int end, final int i) {
+        if (template != null) {
+            route(text, start, end, i);
+            return;
+        }
+        //We do not know the layout yet, so we keep the line until we do
+        if (fingerprintText[i] == null) {
+            fingerprintText[i] = new StringBuilder(end - start);
+        }
+        fingerprintText[i].append(text, start, end);
+        final LayoutTemplate selected = selection.offer(text, start, end, i);
+        if (selected != null) {
+            use(selected);
+        }
+    }
+
+    //From now on lines are read the way the template says, starting with the lines we held back to pick it
+    private void use(final LayoutTemplate selected) {
+        template = selected;
+        heldText = new StringBuilder[selected.footerLines()];
+        heldIndex = new int[selected.footerLines()];
+        for (int slot = 0; slot < heldText.length; slot++) {
+            heldText[slot] = new StringBuilder();
+        }
+        for (int i = 0; i < index && i < fingerprintText.length; i++) {
+            final StringBuilder line = fingerprintText[i];
+            route(line, 0, line.length(), i);
+        }
+    }
+
+    private void route(final CharSequence text, final int start, final int end, final int i) {
+        final LineRole role = template.headerRole(i);
+        if (role != null) {
+            apply(role, text, start, end, i);
+        } else {
+            //Any other line is either a transaction or part of the footer, which we only know once we have seen the lines after it
+            hold(text, start, end, i);
+        }
+    }
+
+    private void apply(final LineRole role, final CharSequence text, final int start, final int end, final int i) {
+        switch (role) {
+            //An empty line, or one we simply don't care about
+            case SKIP: break;
+            case TITLE: {
+                sampleModel.setTitle(text.subSequence(start, end).toString());
+                break;
+            }
+            case META: {
+                //Lines like the addresses, the date and the session are all combined together into the meta information
+                metaBuilder.append(text, start, end).append(LINE_SEPARATOR);
+                break;
+            }
+            case ACCOUNT: {
+                accountLine(text, start, end);
+                break;
+            }
+            case CURRENCIES: {
+                currencyLine(text, start, end);
+                break;
+            }
+            case TOTALS: {
+                totalsLine(text, start, end);
+                break;
+            }
+            case NET_POSITION: {
+                overallNetLine(text, start, end);
+                break;
+            }
+            case CLOSING: {
+                lastLine(text, start, end, i);
+                break;
+            }
+            default: {
+                transactionLine(text, start, end, i);
+            }
+        }
+    }
+
+    private void hold(final CharSequence text, final int start, final int end, final int i) {
+        if (heldText.length == 0) {
+            //The template has no footer, so every line after the header is a transaction
+            transactionLine(text, start, end, i);
+            return;
+        }
+        if (heldCount == heldText.length) {
+            //As many lines as the footer has came after the oldest line we hold, so it cannot be part of the footer, it is in fact a transaction
+            final int slot = heldFirst;
+            transactionLine(heldText[slot], 0, heldText[slot].length(), heldIndex[slot]);
+            heldFirst = (heldFirst + 1) % heldText.length;
+            heldCount--;
+        }
+        final int slot = (heldFirst + heldCount) % heldText.length;
+        heldText[slot].setLength(0);
+        heldText[slot].append(text, start, end);
+        heldIndex[slot] = i;
+        heldCount++;
+    }
+
+    private void accountLine(final CharSequence text, final int start, final int end) {
+        //This line contains the account number and the opening collateral, i.e "Account No.4000070135 Opening Collateral:N3,390,000,000.00",
+        // the template says which word (and which piece of it) each one is
+        tokenizer.tokenize(text, start, end);
+        require(text, start, end, LayoutTemplate.Field.ACCOUNT_NUMBER);
+        sampleModel.setAccountNumber(text.subSequence(fieldStart, fieldEnd).toString());
+        require(text, start, end, LayoutTemplate.Field.OPENING_COLLATERAL);
+        sampleModel.setOpeningCollateral(MonetaryValueParser.parse(text, fieldStart, fieldEnd));
+    }
+
+    private void currencyLine(final CharSequence text, final int start, final int end) {
+        //This line holds the currencies, i.e "Debit (NGN) Credit (NGN)", we only take them when there is exactly one for debit and one for credit
+        tokenizer.tokenize(text, start, end);
+        Transaction.Currency debitCurrency = null;
+        Transaction.Currency creditCurrency = null;
+        int found = 0;
+        for (int word = 0; word < tokenizer.count(); word++) {
+            final Transaction.Currency currency = currency(text, tokenizer.start(word), tokenizer.end(word));
+            if (currency != null) {
+                if (found == 0) {
+                    debitCurrency = currency;
+                } else if (found == 1) {
+                    creditCurrency = currency;
+                }
+                found++;
+            }
+        }
+        if (found == 2) {
+            sampleModel.setDebitCurrency(debitCurrency);
+            sampleModel.setCreditCurrency(creditCurrency);
+        }
+    }
+
+    private void totalsLine(final CharSequence text, final int start, final int end) {
+        //This line holds the total debit and total credit, i.e "Total Debit / Credit(NGN) 549,345,888.61 4,320,410,494.37"
+        tokenizer.tokenize(text, start, end);
+        require(text, start, end, LayoutTemplate.Field.TOTAL_DEBIT);
+        sampleModel.setTotalDebit(MonetaryValueParser.parse(text, fieldStart, fieldEnd));
+        require(text, start, end, LayoutTemplate.Field.TOTAL_CREDIT);
+        sampleModel.setTotalCredit(MonetaryValueParser.parse(text, fieldStart, fieldEnd));
+    }
+
+    private void overallNetLine(final CharSequence text, final int start, final int end) {
+        //This line holds the overall net position, i.e "OVERALL NET POSITION (NGN) 3,771,064,605.76 CR"
+        tokenizer.tokenize(text, start, end);
+        require(text, start, end, LayoutTemplate.Field.OVERALL_NET_POSITION);
+        sampleModel.setOverallNetPosition(MonetaryValueParser.parse(text, fieldStart, fieldEnd));
+        if (locate(text, LayoutTemplate.Field.NET_POSITION_SIDE)) {
+            final String side = text.subSequence(fieldStart, fieldEnd).toString();
+            netPositionSide = "CR".equalsIgnoreCase(side) ? 1 : "DR".equalsIgnoreCase(side) ? -1 : 0;
+        }
+    }
+
+    private void lastLine(final CharSequence text, final int start, final int end, final int i) {
+        if (start == end) {
+            //An empty closing line is not something we know, so it goes the way of every other line, as a transaction
+            transactionLine(text, start, end, i);
+        } else {
+            //The closing line holds another bunch of unwanted information, we also append this to the meta information
+            metaBuilder.append(text, start, end).append(LINE_SEPARATOR);
+        }
+    }
+
+    private void transactionLine(final CharSequence text, final int start, final int end, final int i) {
+        //A transaction line looks like "2  FMDQ Transaction Fee FMDQ 2,199,733.83 -", the first word is the serial number,
+        // and the last three words are the scheme type, the debit amount and the credit amount
+        tokenizer.tokenize(text, start, end);
+        final int words = tokenizer.count();
+        if (words < 4) {
+            throw new IllegalArgumentException(String.format("Line %d is not a transaction: %s", i, text.subSequence(start, end)));
+        }
+        final int serialStart = tokenizer.start(0);
+        final int serialEnd = tokenizer.end(0);
+
+        //The payment scheme is whatever lies between the serial number and the first place the last three words show up
+        // (or the serial number showing up again, whichever comes first)
+        final int tailStart = indexOf(text, start, end, tokenizer.start(words - 3), end);
+        if (tailStart <= serialEnd) {
+            throw new IllegalArgumentException(String.format("Line %d has no payment scheme: %s", i, text.subSequence(start, end)));
+        }
+        int schemeEnd = indexOf(text, serialEnd, tailStart, serialStart, serialEnd);
+        if (schemeEnd < 0) {
+            schemeEnd = tailStart;
+        }
+        int schemeStart = serialEnd;
+        while (schemeStart < schemeEnd && text.charAt(schemeStart) <= ' ') {
+            schemeStart++;
+        }
+        while (schemeEnd > schemeStart && text.charAt(schemeEnd - 1) <= ' ') {
+            schemeEnd--;
+        }
+
+        final Transaction transaction = new Transaction();
+        transaction.setSchemeType(tokenizer.string(words - 3));
+        transaction.setPaymentScheme(text.subSequence(schemeStart, schemeEnd).toString());
+        transaction.setSerialNumber(Integer.parseInt(text, serialStart, serialEnd, 10));
+        transaction.setDebitAmount(MonetaryValueParser.parse(text, tokenizer.start(words - 2), tokenizer.end(words - 2)));
+        transaction.setCreditAmount(MonetaryValueParser.parse(text, tokenizer.start(words - 1), tokenizer.end(words - 1)));
+        debitSum.add(transaction.getDebitAmount());
+        creditSum.add(transaction.getCreditAmount());
+        transactions.add(transaction);
+        transactionConsumer.accept(transaction);
+    }
+
+    /**
+     * Finds where a field is in the line just tokenized, the way the template says, and keeps it in fieldStart and fieldEnd.
+     * @return false if the line does not have that many words
+     */
+    private boolean locate(final CharSequence text, final LayoutTemplate.Field field) {
+        final LayoutTemplate.Position position = template.position(field);
+        final int word = position.word(tokenizer.count());
+        if (word < 0) {
+            return false;
+        }
+        fieldStart = tokenizer.start(word);
+        fieldEnd = tokenizer.end(word);
+        if (position.after() != LayoutTemplate.Position.WHOLE_WORD) {
+            fieldStart = pieceStart(text, fieldStart, fieldEnd, position.after());
+            fieldEnd = pieceEnd(text, fieldStart, fieldEnd, position.after());
+        }
+        return true;
+    }
+
+    private void require(final CharSequence text, final int start, final int end, final LayoutTemplate.Field field) {
+        if (!locate(text, field)) {
+            throw new IllegalArgumentException(String.format("No %s in line: %s", field, text.subSequence(start, end)));
+        }
+    }
+
+    /**
+     * Checks every total the advice states (a template without them simply has nothing to check) against what its transactions add up to.
+     */
+    private TotalsValidation validate() {
+        final BigDecimal debit = debitSum.value();
+        final BigDecimal credit = creditSum.value();
+        final BigDecimal net = credit.subtract(debit);
+
+        final TotalsValidation validation = new TotalsValidation();
+        validation.setTransactionDebit(debit);
+        validation.setTransactionCredit(credit);
+        validation.setTransactionNetPosition(net);
+        check(validation, "totalDebit", sampleModel.getTotalDebit(), debit);
+        check(validation, "totalCredit", sampleModel.getTotalCredit(), credit);
+        final BigDecimal statedNet = sampleModel.getOverallNetPosition();
+        if (statedNet != null) {
+            //The advice prints the net position without a sign, its side (CR or DR) says which way it goes
+            if (netPositionSide == 0) {
+                check(validation, "overallNetPosition", statedNet, net.abs());
+            } else {
+                check(validation, "overallNetPosition", netPositionSide < 0 ? statedNet.negate() : statedNet, net);
+            }
+        }
+        validation.setValid(validation.getMismatches().isEmpty());
+        return validation;
+    }
+
+    private static void check(final TotalsValidation validation, final String field, final BigDecimal stated, final BigDecimal computed) {
+        //compareTo rather than equals, so "100.00" and "100.0" are the same amount
+        if (stated != null && stated.compareTo(computed) != 0) {
+            validation.getMismatches().add(new TotalsValidation.Mismatch(field, stated, computed));
+        }
+    }
+
+    /**
+     * Finds the currency a word names, ignoring any bracket around it and its case (i.e "(ngn)" is {@link Transaction.Currency#NGN}).
+     */
+    private static Transaction.Currency currency(final CharSequence text, final int start, final int end) {
+        for (Transaction.Currency currency : CURRENCIES) {
+            final String name = currency.name();
+            int matched = 0;
+            boolean matches = true;
+            for (int i = start; i < end && matches; i++) {
+                final char c = text.charAt(i);
+                if (c == '(' || c == ')') {
+                    continue;
+                }
+                matches = matched < name.length() && Character.toUpperCase(c) == name.charAt(matched++);
+            }
+            if (matches && matched == name.length()) {
+                return currency;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Where the second piece of a word starts, when the word is cut at every delimiter (i.e "4000070135" in "No.4000070135").
+     */
+    private static int pieceStart(final CharSequence text, final int start, final int end, final char delimiter) {
+        int first = -1;
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            if (first < 0 && c == delimiter) {
+                first = i;
+            } else if (first >= 0 && c != delimiter) {
+                return first + 1;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Nothing after '%s' in %s", delimiter, text.subSequence(start, end)));
+    }
+
+    private static int pieceEnd(final CharSequence text, final int start, final int end, final char delimiter) {
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == delimiter) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int indexOf(final CharSequence text, final int from, final int to, final int needleStart, final int needleEnd) {
+        final int needleLength = needleEnd - needleStart;
+        for (int i = from; i + needleLength <= to; i++) {
+            int k = 0;
+            while (k < needleLength && text.charAt(i + k) == text.charAt(needleStart + k)) {
+                k++;
+            }
+            if (k == needleLength) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
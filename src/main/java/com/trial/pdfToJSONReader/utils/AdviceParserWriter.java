@@ -0,0 +1,76 @@
+package com.trial.pdfToJSONReader.utils;
+
+import java.io.Writer;
+
+/**
+ * This is where the {@link org.apache.pdfbox.text.PDFTextStripper} writes the text of the document, page after page,
+ * and every line is pushed into the {@link AdviceParser} as soon as it is complete. <br>
+ * So instead of gathering the text of the whole document into one big String before we start parsing it,
+ * we never hold more than the line being written (the stripper itself holds one page at a time),
+ * and transactions come out of the parser while later pages are still being read.
+ */
+final class AdviceParserWriter extends Writer {
+
+    private static final char LINE_SEPARATOR = '\n';
+
+    private final AdviceParser parser;
+    private final StringBuilder line = new StringBuilder(256);
+
+    //The time spent in the parser (as opposed to in the stripper writing to us), so the two can be measured apart
+    private long parseNanos;
+
+    AdviceParserWriter(final AdviceParser parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public void write(final char[] chars, final int offset, final int length) {
+        final int end = offset + length;
+        int lineStart = offset;
+        for (int i = offset; i < end; i++) {
+            if (chars[i] == LINE_SEPARATOR) {
+                line.append(chars, lineStart, i - lineStart);
+                pushLine();
+                lineStart = i + 1;
+            }
+        }
+        line.append(chars, lineStart, end - lineStart);
+    }
+
+    @Override
+    public void write(final String text, final int offset, final int length) {
+        final int end = offset + length;
+        int lineStart = offset;
+        for (int i = offset; i < end; i++) {
+            if (text.charAt(i) == LINE_SEPARATOR) {
+                line.append(text, lineStart, i);
+                pushLine();
+                lineStart = i + 1;
+            }
+        }
+        line.append(text, lineStart, end);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Pushes whatever is left after the last line separator as the last line, just like the end of a String would be.
+     */
+    @Override
+    public void close() {
+        pushLine();
+    }
+
+    long getParseNanos() {
+        return parseNanos;
+    }
+
+    private void pushLine() {
+        final long start = System.nanoTime();
+        parser.line(line, 0, line.length());
+        parseNanos += System.nanoTime() - start;
+        line.setLength(0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * This reads a file like {@link FileReader#read(String, LoadMode)} does, but gives back a future straight away rather than
+ * holding the calling thread (a request thread, most of the time) until the file is read. <br>
+ * Everything that waits on storage happens on the I/O executor (see {@link ReadExecutors}): looking the file up in the {@link ResultCache},
+ * which reads the whole file to hash it, and loading the document the way its {@link LoadMode} says. Only the loaded document is then
+ * handed to the parse executor, to strip its text and parse it, the same two halves the {@link DirectoryWatcher} runs on different workers.
+ * So a read waiting on slow storage holds neither a request thread nor one of the parse threads, which stay busy with CPU work.
+ */
+@Service
+public class AsyncFileReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncFileReader.class);
+
+    private final FileReader fileReader;
+    private final ResultCache resultCache;
+    private final ParseMetrics parseMetrics;
+    private final ReadExecutors readExecutors;
+
+    public AsyncFileReader(final FileReader fileReader, final ResultCache resultCache, final ParseMetrics parseMetrics,
+                           final ReadExecutors readExecutors) {
+        this.fileReader = fileReader;
+        this.resultCache = resultCache;
+        this.parseMetrics = parseMetrics;
+        this.readExecutors = readExecutors;
+    }
+
+    /**
+     * This method reads the file at the given path without holding the calling thread.
+     * @param pathToFile This is the path to the file we want to read
+     * @param loadMode This is how the document is held while it is read, null means the configured default (see {@link LoadMode})
+     * @return a future of the {@link SampleModel} of the file, which fails with the same errors {@link FileReader#read(String, LoadMode)} throws
+     */
+    public CompletableFuture<SampleModel> read(final String pathToFile, final LoadMode loadMode) {
+        //The cache calls the reader on the thread that looked the file up, so the document is loaded on the I/O executor too
+        return CompletableFuture.supplyAsync(() -> resultCache.getAsync(pathToFile, path -> load(path, loadMode)
+                        .thenApplyAsync(document -> extract(document, path, loadMode), readExecutors.parse())), readExecutors.io())
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * @return a future of the size of the file, looked up on the I/O executor (0 if there is no such file)
+     */
+    public CompletableFuture<Long> size(final String pathToFile) {
+        return CompletableFuture.supplyAsync(() -> new File(pathToFile).length(), readExecutors.io());
+    }
+
+    private CompletableFuture<PDDocument> load(final String pathToFile, final LoadMode loadMode) {
+        parseMetrics.started();
+        try {
+            return CompletableFuture.completedFuture(fileReader.load(new File(pathToFile), loadMode));
+        } catch (Exception e) {
+            parseMetrics.finished();
+            return CompletableFuture.failedFuture(failed(pathToFile, e));
+        }
+    }
+
+    private SampleModel extract(final PDDocument document, final String pathToFile, final LoadMode loadMode) {
+        try (document) {
+            return fileReader.extract(document, new File(pathToFile), loadMode, transaction -> { });
+        } catch (Exception e) {
+            throw failed(pathToFile, e);
+        } finally {
+            parseMetrics.finished();
+        }
+    }
+
+    //The same as what a blocking read does with an error: it is counted and logged, and passed on with its message
+    private RuntimeException failed(final String pathToFile, final Exception e) {
+        parseMetrics.failed(e);
+        LOGGER.error("Could not read {}", pathToFile, e);
+        return new RuntimeException(e.getMessage());
+    }
+}
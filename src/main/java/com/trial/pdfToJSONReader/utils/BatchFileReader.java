@@ -0,0 +1,214 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.trial.pdfToJSONReader.entities.BatchResult;
+import com.trial.pdfToJSONReader.entities.FileResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+@Service
+public class BatchFileReader implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchFileReader.class);
+
+    private final FileReader fileReader;
+    private final AdmissionControl admissionControl;
+
+    /**
+     * The worker pool every batch shares. It is deliberately bounded (fixed number of threads, and at most a fixed number of waiting files),
+     * so that no matter how many files a batch holds, we never have more than a known number of PDFs open at once.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * This is our backpressure. A permit is taken before a file is handed to the pool and given back once the file is done,
+     * so when the workers and the queue are full the submitting thread simply waits, rather than piling up more work in memory.
+     */
+    private final Semaphore inFlight;
+
+    /**
+     * The number of files a single streamed batch is allowed to have started but not yet handed over, see {@link #stream(List, Consumer)}.
+     */
+    private final int window;
+
+    public BatchFileReader(final FileReader fileReader, final AdmissionControl admissionControl,
+                           @Value("${pdf.batch.workers:0}") final int workers,
+                           @Value("${pdf.batch.queue-capacity:64}") final int queueCapacity) {
+        this.fileReader = fileReader;
+        this.admissionControl = admissionControl;
+        //If no number of workers is configured, we use one worker per core, since parsing is mostly CPU work
+        final int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.window = poolSize + Math.max(1, queueCapacity);
+        this.inFlight = new Semaphore(window);
+        //The queue itself needs no bound of its own, the semaphore already ensures it never holds more than the queue capacity
+        // (a worker gives its permit back a moment before it is free to take the next file, so a bounded queue would reject it)
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory("pdf-batch-"));
+    }
+
+    /**
+     * This method gathers every file in the given directory whose name matches the glob (i.e "*.pdf").
+     * @param directory The directory we want to look into
+     * @param glob The glob the file names must match
+     * @return the full path of every matching file, sorted so a batch is always read in the same order
+     */
+    public List<String> resolve(final String directory, final String glob) {
+        final List<String> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(directory), glob == null ? "*" : glob)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    paths.add(path.toString());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not list the files of {} matching {}", directory, glob, e);
+            throw new RuntimeException(e.getMessage());
+        }
+        paths.sort(String::compareTo);
+        return paths;
+    }
+
+    /**
+     * This method reads every file passed to it on the worker pool, and gives back the result of each of them.
+     * A file that fails does not fail the batch, its error is simply recorded against that file.
+     * @param pathsToFiles These are the paths to the files we want to read
+     * @return {@link BatchResult}. The per file results, in the same order as the paths passed, and the batch throughput.
+     */
+    public BatchResult read(final List<String> pathsToFiles) {
+
+        final long start = System.nanoTime();
+        final List<Future<FileResult>> futures = new ArrayList<>(pathsToFiles.size());
+
+        //Hand every file over to the pool, waiting for a free slot whenever the pool is saturated
+        for (String path : pathsToFiles) {
+            futures.add(submit(path));
+        }
+
+        //Now we collect the results in the order the files were asked for
+        final List<FileResult> files = new ArrayList<>(futures.size());
+        int succeeded = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            final FileResult fileResult = await(pathsToFiles.get(i), futures.get(i));
+            if (fileResult.isSuccessful()) {
+                succeeded++;
+            }
+            files.add(fileResult);
+        }
+
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final BatchResult batchResult = new BatchResult();
+        batchResult.setFiles(files);
+        batchResult.setTotalFiles(files.size());
+        batchResult.setSucceeded(succeeded);
+        batchResult.setFailed(files.size() - succeeded);
+        batchResult.setElapsedMillis(elapsedMillis);
+        batchResult.setFilesPerSecond(elapsedMillis == 0 ? files.size() : files.size() * 1000.0 / elapsedMillis);
+        return batchResult;
+    }
+
+    /**
+     * This method reads every file passed to it on the worker pool, and hands each result to the consumer as soon as that file is done,
+     * so the results arrive in completion order rather than in the order the files were asked for. <br>
+     * Unlike {@link #read(List)}, nothing is kept once it has been consumed: at most a window of (workers + queue capacity) results
+     * are ever held at once, which keeps memory flat no matter how many files the batch holds.
+     * The consumer is always called on the thread that called this method, so it does not need to be thread safe.
+     * @param pathsToFiles These are the paths to the files we want to read
+     * @param consumer This receives every {@link FileResult}, one at a time
+     */
+    public void stream(final List<String> pathsToFiles, final Consumer<FileResult> consumer) {
+
+        final BlockingQueue<FileResult> completed = new LinkedBlockingQueue<>();
+        int outstanding = 0;
+
+        for (String path : pathsToFiles) {
+            //When the window is full, we wait for (and hand over) one finished file before starting another
+            if (outstanding == window) {
+                consumer.accept(take(completed));
+                outstanding--;
+            }
+            submit(path).thenAccept(completed::add);
+            outstanding++;
+        }
+
+        //Finally, we hand over the files that are still being read as they finish
+        for (; outstanding > 0; outstanding--) {
+            consumer.accept(take(completed));
+        }
+    }
+
+    private CompletableFuture<FileResult> submit(final String path) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a free batch worker");
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return readOne(path);
+                } finally {
+                    inFlight.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            //We hold a permit for every slot, so this only happens when the pool is shutting down
+            inFlight.release();
+            return CompletableFuture.completedFuture(new FileResult(path, null, "Batch worker pool is shut down", 0L));
+        }
+    }
+
+    private FileResult take(final BlockingQueue<FileResult> completed) {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the file to be read");
+        }
+    }
+
+    //Every file of a batch takes its turn with the single reads (see AdmissionControl), waiting on the worker that reads it.
+    // A file turned away is recorded as failed, like any other
+    private FileResult readOne(final String path) {
+        final long start = System.nanoTime();
+        try {
+            final AdmissionControl.Permit permit = admissionControl.acquire(new File(path).length());
+            try (permit) {
+                return new FileResult(path, fileReader.read(path), null,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (Exception e) {
+            final String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            return new FileResult(path, null, error, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private FileResult await(final String path, final Future<FileResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FileResult(path, null, "Interrupted while waiting for the file to be read", 0L);
+        } catch (ExecutionException e) {
+            return new FileResult(path, null, String.valueOf(e.getCause()), 0L);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,387 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.FileResult;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * This reads every PDF that is dropped into a watched directory, without anyone having to call the API for it. <br>
+ * New files are detected with a {@link WatchService}, and a file is only picked up once its size and last modified time
+ * have not changed for the configured settle time, so we never read a file that is still being copied in. <br>
+ * Every file then goes through a pipeline of stages, each with its own workers: load (reading the document from disk),
+ * extract (stripping the text and parsing it into the JSON model) and write (writing the JSON next to the file, or into the
+ * output directory). The stages are joined by bounded queues, so when a stage falls behind the stages before it simply wait,
+ * which also bounds how many documents are held open at once. <br>
+ * A file that cannot be read gets a "&lt;name&gt;.error.json" instead, holding the reason. Files that are already in the directory
+ * when we start, and have no output (or error) newer than themselves yet, are read as well. The watcher only runs when a directory is configured. <br>
+ * Like the jobs, dropped files do not go through the {@link AdmissionControl}: the bounded queues and workers of the stages
+ * already bound how many documents are open, and nobody is waiting on the answer.
+ */
+@Service
+public class DirectoryWatcher implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    private static final String OUTPUT_SUFFIX = ".json";
+    private static final String ERROR_SUFFIX = ".error.json";
+
+    private final FileReader fileReader;
+    private final ParseMetrics parseMetrics;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final Path outputDirectory;
+    private final long settleMillis;
+    private final int loadWorkers;
+    private final int extractWorkers;
+    private final int writeWorkers;
+
+    //The queues joining the stages (detect -> load -> extract -> write)
+    private final BlockingQueue<Path> detected;
+    private final BlockingQueue<Loaded> loaded;
+    private final BlockingQueue<Extracted> extracted;
+
+    private WatchService watchService;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public DirectoryWatcher(final FileReader fileReader, final ParseMetrics parseMetrics, final ObjectMapper objectMapper,
+                            @Value("${pdf.watch.directory:}") final String directory,
+                            @Value("${pdf.watch.glob:*.pdf}") final String glob,
+                            @Value("${pdf.watch.output-directory:}") final String outputDirectory,
+                            @Value("${pdf.watch.settle-time:2s}") final Duration settleTime,
+                            @Value("${pdf.watch.load-workers:1}") final int loadWorkers,
+                            @Value("${pdf.watch.extract-workers:0}") final int extractWorkers,
+                            @Value("${pdf.watch.write-workers:1}") final int writeWorkers,
+                            @Value("${pdf.watch.queue-capacity:16}") final int queueCapacity) {
+        this.fileReader = fileReader;
+        this.parseMetrics = parseMetrics;
+        this.objectMapper = objectMapper;
+        this.directory = directory.isEmpty() ? null : Paths.get(directory);
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        this.outputDirectory = outputDirectory.isEmpty() ? null : Paths.get(outputDirectory);
+        this.settleMillis = settleTime.toMillis();
+        this.loadWorkers = Math.max(1, loadWorkers);
+        //Extracting is the CPU bound stage, so if no number of workers is configured we use one per core
+        this.extractWorkers = extractWorkers > 0 ? extractWorkers : Runtime.getRuntime().availableProcessors();
+        this.writeWorkers = Math.max(1, writeWorkers);
+        this.detected = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.loaded = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.extracted = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (directory == null || running) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            if (outputDirectory != null) {
+                Files.createDirectories(outputDirectory);
+            }
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            LOGGER.error("Could not watch {}", directory, e);
+            throw new RuntimeException(e.getMessage());
+        }
+
+        running = true;
+        workers = Executors.newFixedThreadPool(1 + loadWorkers + extractWorkers + writeWorkers, new NamedThreadFactory("pdf-watch-"));
+        workers.execute(this::detect);
+        for (int i = 0; i < loadWorkers; i++) {
+            workers.execute(this::load);
+        }
+        for (int i = 0; i < extractWorkers; i++) {
+            workers.execute(this::extract);
+        }
+        for (int i = 0; i < writeWorkers; i++) {
+            workers.execute(this::write);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        workers.shutdownNow();
+        try {
+            watchService.close();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            LOGGER.warn("Could not stop watching {}", directory, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //Documents that were loaded but never extracted still hold memory (or temporary files), so we close them
+        for (Loaded document; (document = loaded.poll()) != null; ) {
+            close(document.document);
+            parseMetrics.finished();
+        }
+        detected.clear();
+        extracted.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The detect stage. It collects the files the watch service tells us about, and hands each of them to the load stage
+     * once it has settled.
+     */
+    private void detect() {
+        //Files we have been told about but that may still be written to
+        final Map<Path, Pending> pending = new HashMap<>();
+        scan(pending, true);
+        //We wake up at least twice per settle time, to hand over the files that have settled in the meantime
+        final long pollMillis = Math.max(10, settleMillis / 2);
+
+        try {
+            while (running) {
+                final WatchKey key = watchService.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            //Too many events at once, some were lost, so we look at the whole directory again
+                            scan(pending, false);
+                        } else {
+                            final Path path = directory.resolve((Path) event.context());
+                            if (accepts(path)) {
+                                pending.put(path, new Pending());
+                            }
+                        }
+                    }
+                    key.reset();
+                }
+                settle(pending);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //We are being stopped
+        }
+    }
+
+    private void scan(final Map<Path, Pending> pending, final boolean skipUpToDate) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path) && accepts(path)
+                        && !(skipUpToDate && isUpToDate(path)) && !pending.containsKey(path)) {
+                    pending.put(path, new Pending());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not list the files in {}", directory, e);
+        }
+    }
+
+    //Hands over every pending file whose size and last modified time have not changed for the settle time
+    private void settle(final Map<Path, Pending> pending) throws InterruptedException {
+        final long now = System.currentTimeMillis();
+        final Iterator<Map.Entry<Path, Pending>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Path, Pending> entry = iterator.next();
+            final Pending file = entry.getValue();
+            final BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(entry.getKey(), BasicFileAttributes.class);
+            } catch (IOException e) {
+                //The file is gone (or was renamed) before it settled
+                iterator.remove();
+                continue;
+            }
+            final long size = attributes.size();
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+            if (size != file.size || lastModified != file.lastModified) {
+                file.size = size;
+                file.lastModified = lastModified;
+                file.changedAt = now;
+            } else if (now - file.changedAt >= settleMillis) {
+                iterator.remove();
+                //This waits when the load stage is behind, the watch service keeps the events for us in the meantime
+                detected.put(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * The load stage. It reads the documents from disk, and hands them over to the extract stage.
+     */
+    private void load() {
+        try {
+            while (running) {
+                final Path path = detected.take();
+                final long start = System.nanoTime();
+                parseMetrics.started();
+                final PDDocument document;
+                try {
+                    document = fileReader.load(path.toFile(), null);
+                } catch (Exception e) {
+                    failed(path, start, e);
+                    parseMetrics.finished();
+                    continue;
+                }
+                try {
+                    loaded.put(new Loaded(path, start, document));
+                } catch (InterruptedException e) {
+                    close(document);
+                    parseMetrics.finished();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            //We are being stopped
+        }
+    }
+
+    /**
+     * The extract stage. It strips the text of the loaded documents and parses it, and hands the results over to the write stage.
+     */
+    private void extract() {
+        try {
+            while (running) {
+                final Loaded file = loaded.take();
+                final SampleModel sampleModel;
+                try (PDDocument document = file.document) {
+                    sampleModel = fileReader.extract(document, file.path.toFile(), null, transaction -> { });
+                } catch (Exception e) {
+                    failed(file.path, file.start, e);
+                    continue;
+                } finally {
+                    parseMetrics.finished();
+                }
+                extracted.put(new Extracted(file.path, sampleModel));
+            }
+        } catch (InterruptedException e) {
+            //We are being stopped
+        }
+    }
+
+    /**
+     * The write stage. It writes the JSON of every file next to it, or into the output directory.
+     */
+    private void write() {
+        try {
+            while (running) {
+                final Extracted file = extracted.take();
+                final long start = System.nanoTime();
+                try {
+                    writeOutput(output(file.path, OUTPUT_SUFFIX), file.sampleModel);
+                    parseMetrics.serialized(System.nanoTime() - start);
+                } catch (IOException e) {
+                    LOGGER.error("Could not write the result of {}", file.path, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            //We are being stopped
+        }
+    }
+
+    private void failed(final Path path, final long start, final Exception e) {
+        parseMetrics.failed(e);
+        LOGGER.error("Could not read {}", path, e);
+        final String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        try {
+            writeOutput(output(path, ERROR_SUFFIX),
+                    new FileResult(path.toString(), null, error, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        } catch (IOException ioException) {
+            LOGGER.error("Could not write the error of {}", path, ioException);
+        }
+    }
+
+    //Write to a temporary file first and move it in place, so whoever picks the output up never sees half of it
+    private void writeOutput(final Path output, final Object value) throws IOException {
+        final Path temporary = Files.createTempFile(output.getParent(), output.getFileName().toString(), ".tmp");
+        try {
+            objectMapper.writeValue(temporary.toFile(), value);
+            Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    //Our own output (and its temporary files) is never read, even when the glob would match it
+    private boolean accepts(final Path path) {
+        final String fileName = path.getFileName().toString();
+        return matcher.matches(path.getFileName()) && !fileName.endsWith(OUTPUT_SUFFIX) && !fileName.endsWith(".tmp");
+    }
+
+    //A file is up to date when its output exists and is not older than the file itself
+    //A file is up to date when it was read since it last changed, whether that gave its JSON or its error (which reading it again would only repeat)
+    private boolean isUpToDate(final Path path) {
+        return isNewer(output(path, OUTPUT_SUFFIX), path) || isNewer(output(path, ERROR_SUFFIX), path);
+    }
+
+    private static boolean isNewer(final Path output, final Path path) {
+        try {
+            return Files.exists(output)
+                    && Files.getLastModifiedTime(output).compareTo(Files.getLastModifiedTime(path)) >= 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The output of "advice.pdf" is "advice.json" (or "advice.error.json"), next to it or in the output directory.
+     */
+    Path output(final Path path, final String suffix) {
+        final String fileName = path.getFileName().toString();
+        final int dot = fileName.lastIndexOf('.');
+        final String name = (dot > 0 ? fileName.substring(0, dot) : fileName) + suffix;
+        return outputDirectory == null ? path.resolveSibling(name) : outputDirectory.resolve(name);
+    }
+
+    private static void close(final PDDocument document) {
+        try {
+            document.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close a document", e);
+        }
+    }
+
+    private static final class Pending {
+        private long size = -1;
+        private long lastModified = -1;
+        private long changedAt = System.currentTimeMillis();
+    }
+
+    private static final class Loaded {
+        private final Path path;
+        private final long start;
+        private final PDDocument document;
+
+        private Loaded(final Path path, final long start, final PDDocument document) {
+            this.path = path;
+            this.start = start;
+            this.document = document;
+        }
+    }
+
+    private static final class Extracted {
+        private final Path path;
+        private final SampleModel sampleModel;
+
+        private Extracted(final Path path, final SampleModel sampleModel) {
+            this.path = path;
+            this.sampleModel = sampleModel;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.trial.pdfToJSONReader.utils;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.ScratchFile;
+import org.apache.pdfbox.pdfparser.PDFParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This loads PDF documents the way the {@link LoadMode} asks for. <br>
+ * The mode is configured once for the whole application (pdf.load.mode), and can be overridden for a single request.
+ * Whichever mode is used, the document given back must be closed by the caller, ideally in a try-with-resources,
+ * since that is what releases the temporary files and mapped memory behind it. <br>
+ * Uploaded documents (see {@link #load(InputStream, long)}) never get a file of their own: small ones are read straight into
+ * a byte array, and larger ones are only spilled into a temporary file for the part beyond the configured threshold.
+ */
+@Service
+public class DocumentLoader {
+
+    private final LoadMode defaultMode;
+    private final long maxMainMemoryBytes;
+    private final File tempDirectory;
+    private final long maxUploadBytes;
+    private final long uploadMemoryThresholdBytes;
+
+    public DocumentLoader(@Value("${pdf.load.mode:MEMORY}") final LoadMode defaultMode,
+                          @Value("${pdf.load.max-main-memory:64MB}") final DataSize maxMainMemory,
+                          @Value("${pdf.load.temp-directory:}") final String tempDirectory,
+                          @Value("${pdf.upload.max-size:50MB}") final DataSize maxUpload,
+                          @Value("${pdf.upload.memory-threshold:8MB}") final DataSize uploadMemoryThreshold) {
+        this.defaultMode = defaultMode;
+        this.maxMainMemoryBytes = maxMainMemory.toBytes();
+        this.tempDirectory = tempDirectory.isEmpty() ? null : new File(tempDirectory);
+        this.maxUploadBytes = maxUpload.toBytes();
+        this.uploadMemoryThresholdBytes = uploadMemoryThreshold.toBytes();
+    }
+
+    /**
+     * This method loads the document held in the given file.
+     * @param file This is the file we want to load
+     * @param mode This is how the document should be held, null means the configured default
+     * @return the loaded document, which the caller must close
+     */
+    public PDDocument load(final File file, final LoadMode mode) throws IOException {
+        final LoadMode loadMode = mode == null ? defaultMode : mode;
+        if (loadMode != LoadMode.MAPPED) {
+            return PDDocument.load(file, memoryUsageSetting(loadMode));
+        }
+
+        final MappedRandomAccessRead source;
+        try {
+            source = MappedRandomAccessRead.map(file.toPath());
+        } catch (IOException e) {
+            //A file we cannot map (i.e too large) is still read, just not mapped
+            return PDDocument.load(file, memoryUsageSetting(LoadMode.MIXED));
+        }
+        //From here on, closing the document closes the source and the scratch file, until then we must close them ourselves
+        final ScratchFile scratchFile = new ScratchFile(memoryUsageSetting(LoadMode.MIXED));
+        try {
+            final PDFParser parser = new PDFParser(source, scratchFile);
+            parser.parse();
+            return parser.getPDDocument();
+        } catch (IOException | RuntimeException e) {
+            scratchFile.close();
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the largest document we accept as an upload, in bytes
+     */
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    /**
+     * This method loads an uploaded document straight from the body of the request.
+     * @param inputStream This is the body of the request, which the caller closes
+     * @param length This is the declared length of the body, or -1 if it is not known (i.e a chunked request)
+     * @return the loaded document, which the caller must close
+     * @throws UploadTooLargeException if the declared length is above the maximum upload size
+     */
+    public PDDocument load(final InputStream inputStream, final long length) throws IOException {
+        if (length > maxUploadBytes) {
+            throw new UploadTooLargeException(maxUploadBytes);
+        }
+        if (length >= 0 && length <= uploadMemoryThresholdBytes) {
+            //We know the size and it is small, so we read it once into an array of exactly that size, which PDFBox reads in place
+            return PDDocument.load(readFully(inputStream, (int) length));
+        }
+        //Either too large or of unknown size: PDFBox keeps the first part in memory and only the rest goes into a temporary file
+        final MemoryUsageSetting memoryUsageSetting = MemoryUsageSetting.setupMixed(uploadMemoryThresholdBytes);
+        return PDDocument.load(inputStream, tempDirectory == null ? memoryUsageSetting : memoryUsageSetting.setTempDir(tempDirectory));
+    }
+
+    private static byte[] readFully(final InputStream inputStream, final int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        int offset = 0;
+        int read;
+        while (offset < length && (read = inputStream.read(bytes, offset, length - offset)) > 0) {
+            offset += read;
+        }
+        if (offset < length) {
+            throw new IOException(String.format("The upload ended after %d of its %d bytes", offset, length));
+        }
+        return bytes;
+    }
+
+    private MemoryUsageSetting memoryUsageSetting(final LoadMode loadMode) {
+        final MemoryUsageSetting memoryUsageSetting;
+        switch (loadMode) {
+            case MIXED: case MAPPED: {
+                memoryUsageSetting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+                break;
+            }
+            case TEMP_FILE: {
+                memoryUsageSetting = MemoryUsageSetting.setupTempFileOnly();
+                break;
+            }
+            default: {
+                memoryUsageSetting = MemoryUsageSetting.setupMainMemoryOnly();
+            }
+        }
+        return tempDirectory == null ? memoryUsageSetting : memoryUsageSetting.setTempDir(tempDirectory);
+    }
+}
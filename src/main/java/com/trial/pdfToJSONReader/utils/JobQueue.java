@@ -0,0 +1,314 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.trial.pdfToJSONReader.entities.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This reads files in the background, so a caller with a large statement does not have to hold an HTTP request open
+ * (and run into the timeout of the gateway) until it is read. <br>
+ * A job is queued with {@link #submit(String, LoadMode, int)}, which gives back straight away, and a pool of workers drains the queue,
+ * highest priority first (and oldest first within the same priority). The state of every job, including its result once it is done,
+ * is polled with {@link #get(String)}. <br>
+ * At most the configured number of jobs wait in the queue, beyond it a job is turned away with an {@link OverloadedException}
+ * (answered with 429), so a caller submitting faster than the workers read cannot fill the memory (and the disk) with jobs. <br>
+ * Every job is kept as a JSON file of its own in the configured directory, written every time its state changes,
+ * so the jobs that were queued (or being read) when the application stopped are queued again when it starts (those are queued
+ * again even beyond the capacity, they were accepted already).
+ * Finished jobs are forgotten, and their file deleted, once they are older than the configured time to live. <br>
+ * Jobs do not go through the {@link AdmissionControl}: the fixed number of workers already bounds how many documents they hold.
+ */
+@Service
+public class JobQueue implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobQueue.class);
+
+    private static final String SUFFIX = ".json";
+
+    /**
+     * Highest priority first, then first come, first served.
+     */
+    private static final Comparator<Job> ORDER = Comparator.comparingInt(Job::getPriority).reversed()
+            .thenComparingLong(Job::getSubmittedAt)
+            .thenComparing(Job::getId);
+
+    private final FileReader fileReader;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader jobReader;
+    private final Path directory;
+    private final int workers;
+    private final long resultTtlMillis;
+    private final int queueCapacity;
+    private final long retryAfterSeconds;
+
+    //Every job we know, by id. A job held here is never changed, a changed copy takes its place (so readers never see half a change)
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final BlockingQueue<Job> queue = new PriorityBlockingQueue<>(16, ORDER);
+    //The jobs in the queue, counted apart from it so a job is only added once it has its place
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private ExecutorService executor;
+    private ScheduledExecutorService expiry;
+    private volatile boolean running;
+    private boolean recovered;
+
+    public JobQueue(final FileReader fileReader, final ObjectMapper objectMapper,
+                    @Value("${pdf.jobs.directory:}") final String directory,
+                    @Value("${pdf.jobs.workers:2}") final int workers,
+                    @Value("${pdf.jobs.result-ttl:1h}") final Duration resultTtl,
+                    @Value("${pdf.jobs.queue-capacity:1000}") final int queueCapacity,
+                    @Value("${pdf.admission.retry-after:5s}") final Duration retryAfter) {
+        this.fileReader = fileReader;
+        this.objectMapper = objectMapper;
+        //Jobs written by an older (or newer) version of the application are still read
+        this.jobReader = objectMapper.readerFor(Job.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        //Resolved once, so the jobs are found in the same place whatever the working directory is later on
+        this.directory = directory.isEmpty() ? null : Paths.get(directory).toAbsolutePath().normalize();
+        this.workers = Math.max(1, workers);
+        this.resultTtlMillis = resultTtl.toMillis();
+        this.queueCapacity = Math.max(1, queueCapacity);
+        //Retry-After is in whole seconds, and never 0, as for the reads turned away by the AdmissionControl
+        this.retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+
+    /**
+     * This method queues a file to be read in the background.
+     * @param filePath This is the path to the file we want to read
+     * @param loadMode This is how the document is held while it is read, null means the configured default (see {@link LoadMode})
+     * @param priority Jobs with a higher priority are read first
+     * @return {@link Job}. The queued job, whose id is then used to poll it.
+     * @throws OverloadedException if the queue is full
+     */
+    public Job submit(final String filePath, final LoadMode loadMode, final int priority) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            throw new OverloadedException(true, retryAfterSeconds);
+        }
+        final Job job = new Job();
+        job.setId(UUID.randomUUID().toString());
+        job.setFilePath(filePath);
+        job.setLoadMode(loadMode);
+        job.setPriority(priority);
+        job.setStatus(Job.Status.QUEUED);
+        job.setSubmittedAt(System.currentTimeMillis());
+        //The job is on disk before we say it is queued, so a crash right after this cannot lose it
+        try {
+            update(job);
+        } catch (RuntimeException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+        queue.add(job);
+        return job;
+    }
+
+    /**
+     * @return the job with the given id as it is right now, or null if there is no such job (or it has expired)
+     */
+    public Job get(final String id) {
+        final Job job = jobs.get(id);
+        if (job != null && isExpired(job, System.currentTimeMillis())) {
+            forget(job);
+            return null;
+        }
+        return job;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        //The jobs of an earlier run are queued again before the workers start, once (a restart of the queue already has them)
+        if (!recovered) {
+            if (directory != null) {
+                LOGGER.info("Jobs are kept in {}", directory);
+            }
+            recover();
+            recovered = true;
+        }
+        running = true;
+        executor = Executors.newFixedThreadPool(workers, new NamedThreadFactory("pdf-job-"));
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+        if (resultTtlMillis > 0) {
+            //Expired jobs are looked for a few times per time to live, and at least once a minute
+            final long period = Math.max(1, Math.min(resultTtlMillis / 4, TimeUnit.MINUTES.toMillis(1)));
+            expiry = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("pdf-job-expiry-"));
+            expiry.scheduleAtFixedRate(this::expire, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        //The jobs being read are left as they are on disk (running), so they are queued again on the next start
+        executor.shutdownNow();
+        if (expiry != null) {
+            expiry.shutdownNow();
+        }
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        try {
+            while (running) {
+                final Job next = queue.take();
+                queued.decrementAndGet();
+                //Whatever goes wrong with one job (i.e its state cannot be written), the worker goes on with the next one
+                try {
+                    run(next);
+                } catch (RuntimeException e) {
+                    fail(next, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            //We are being stopped
+        }
+    }
+
+    private void run(final Job queued) {
+        final Job started = new Job(queued);
+        started.setStatus(Job.Status.RUNNING);
+        started.setStartedAt(System.currentTimeMillis());
+        update(started);
+
+        final Job finished = new Job(started);
+        try {
+            finished.setResult(fileReader.read(started.getFilePath(), started.getLoadMode()));
+            finished.setStatus(Job.Status.SUCCEEDED);
+        } catch (Exception e) {
+            finished.setError(error(e));
+            finished.setStatus(Job.Status.FAILED);
+        }
+        finished.setFinishedAt(System.currentTimeMillis());
+        update(finished);
+    }
+
+    /**
+     * Marks a job that could not be run (or whose state could not be written) as failed, so whoever polls it is told why instead of
+     * seeing it stuck. It is kept in memory even when it cannot be written to disk either, in which case it is read again on the next start.
+     */
+    private void fail(final Job job, final RuntimeException cause) {
+        LOGGER.error("Job {} could not be run", job.getId(), cause);
+        final Job failed = new Job(job);
+        failed.setResult(null);
+        failed.setError(error(cause));
+        failed.setStatus(Job.Status.FAILED);
+        failed.setFinishedAt(System.currentTimeMillis());
+        try {
+            update(failed);
+        } catch (RuntimeException e) {
+            //update() has already put it in memory before failing to write it
+            LOGGER.error("Job {} could not be marked as failed on disk", job.getId(), e);
+        }
+    }
+
+    private static String error(final Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+
+    private void expire() {
+        final long now = System.currentTimeMillis();
+        for (Job job : jobs.values()) {
+            if (isExpired(job, now)) {
+                forget(job);
+            }
+        }
+    }
+
+    private boolean isExpired(final Job job, final long now) {
+        return resultTtlMillis > 0 && job.isFinished() && now - job.getFinishedAt() >= resultTtlMillis;
+    }
+
+    private void forget(final Job job) {
+        jobs.remove(job.getId(), job);
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(directory.resolve(job.getId() + SUFFIX));
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete the expired job {}", job.getId(), e);
+            }
+        }
+    }
+
+    private void update(final Job job) {
+        jobs.put(job.getId(), job);
+        if (directory == null) {
+            return;
+        }
+        //Write to a temporary file first and move it in place, so a crash never leaves half a job behind
+        try {
+            Files.createDirectories(directory);
+            final Path temporary = Files.createTempFile(directory, job.getId(), ".tmp");
+            objectMapper.writeValue(temporary.toFile(), job);
+            Files.move(temporary, directory.resolve(job.getId() + SUFFIX), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Could not write job {} to {}", job.getId(), directory, e);
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads back the jobs of an earlier run. The ones that were queued or being read are queued again, in their original order.
+     */
+    private void recover() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : stream) {
+                final Job job;
+                try {
+                    job = jobReader.readValue(path.toFile());
+                } catch (IOException e) {
+                    //A file we cannot read is not a job we can do anything about, but it is left in place to be looked at
+                    LOGGER.warn("Could not read the job in {}, it is left as it is", path, e);
+                    continue;
+                }
+                if (job.isFinished()) {
+                    jobs.put(job.getId(), job);
+                } else {
+                    final Job requeued = new Job(job);
+                    requeued.setStatus(Job.Status.QUEUED);
+                    requeued.setStartedAt(0);
+                    update(requeued);
+                    queued.incrementAndGet();
+                    queue.add(requeued);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not recover the jobs in {}", directory, e);
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+}
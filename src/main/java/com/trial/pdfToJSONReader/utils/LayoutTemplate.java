@@ -0,0 +1,267 @@
+package com.trial.pdfToJSONReader.utils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This declares the layout of one kind of advice: which of its first lines hold what (the header), which of its last lines hold what
+ * (the footer), and the anchors that recognise it. Every line between the header and the footer is a transaction. <br>
+ * The anchors are checked against the first lines of a document (i.e "line 1 is INTER-BANK SETTLEMENT ADVICE"),
+ * and {@link LayoutTemplates} picks the first template whose anchors all match. <br>
+ * It also says which word of its line each {@link Field} is (i.e "the account number is the second word, after the dot"). <br>
+ * To support another layout, declare it with {@link #builder(String)} and register it as a Spring bean.
+ * The layout every advice had so far is {@link #NIBSS_SETTLEMENT_ADVICE}, which is also used when no other template matches.
+ */
+public final class LayoutTemplate {
+
+    /**
+     * The NIBSS inter-bank settlement advice:
+     * <pre>
+     *                                                                                    ----------- 0
+     * INTER-BANK SETTLEMENT ADVICE                                                       ----------- 1
+     *                                                                                    ----------- 2
+     * The Treasurer / Head of Operations ... Session 3                                   ----------- 3 to 8
+     * Account No.4000070135 Opening Collateral:N3,390,000,000.00                         ----------- 9
+     * S/N Payment Scheme SchemeType Debit (NGN) Credit (NGN)                             ---------- 10
+     * 1  e-Transact Card 20,000.00 -                                                     ---------- 11 onwards
+     * Total Debit / Credit(NGN) 549,345,888.61 4,320,410,494.37                          ---------- third to last
+     * OVERALL NET POSITION (NGN) 3,771,064,605.76 CR                                     ---------- second to last
+     * Nigeria Inter-Bank Settlement System              Settlement Advice                ---------- last
+     * </pre>
+     */
+    public static final LayoutTemplate NIBSS_SETTLEMENT_ADVICE = builder("nibss-settlement-advice")
+            .equalTo(1, "INTER-BANK SETTLEMENT ADVICE")
+            .startsWith(9, "Account No")
+            .startsWith(10, "S/N")
+            .header(LineRole.SKIP, LineRole.TITLE, LineRole.SKIP,
+                    LineRole.META, LineRole.META, LineRole.META, LineRole.META, LineRole.META, LineRole.META,
+                    LineRole.ACCOUNT, LineRole.CURRENCIES)
+            .footer(LineRole.TOTALS, LineRole.NET_POSITION, LineRole.CLOSING)
+            .field(Field.ACCOUNT_NUMBER, 1, '.')
+            .field(Field.OPENING_COLLATERAL, 3, ':')
+            .field(Field.TOTAL_DEBIT, 4)
+            .field(Field.TOTAL_CREDIT, 5)
+            .field(Field.OVERALL_NET_POSITION, 4)
+            .field(Field.NET_POSITION_SIDE, 5)
+            .build();
+
+    /**
+     * The values read from the header and footer lines, each one from a single word of its line.
+     */
+    public enum Field {
+        //On the ACCOUNT line
+        ACCOUNT_NUMBER, OPENING_COLLATERAL,
+        //On the TOTALS line
+        TOTAL_DEBIT, TOTAL_CREDIT,
+        //On the NET_POSITION line, the side (CR or DR) is optional
+        OVERALL_NET_POSITION, NET_POSITION_SIDE
+    }
+
+    private final String name;
+    private final LineRole[] header;
+    private final LineRole[] footer;
+    private final Anchor[] anchors;
+    private final Position[] positions;
+
+    private LayoutTemplate(final String name, final LineRole[] header, final LineRole[] footer, final Anchor[] anchors, final Position[] positions) {
+        this.name = name;
+        this.header = header;
+        this.footer = footer;
+        this.anchors = anchors;
+        this.positions = positions;
+    }
+
+    public static Builder builder(final String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return what the line at the given index holds, or null if it is past the header (a transaction, or part of the footer)
+     */
+    LineRole headerRole(final int index) {
+        return index < header.length ? header[index] : null;
+    }
+
+    int footerLines() {
+        return footer.length;
+    }
+
+    /**
+     * @return what the line holds, given how many lines of the footer are left, including this one (1 is the last line of the document)
+     */
+    LineRole footerRole(final int remaining) {
+        return footer[footer.length - remaining];
+    }
+
+    Anchor[] anchors() {
+        return anchors;
+    }
+
+    Position position(final Field field) {
+        return positions[field.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * A piece of text a line of the document must hold for the template to match.
+     */
+    static final class Anchor {
+
+        enum Kind { EQUALS, STARTS_WITH, CONTAINS }
+
+        private final int line;
+        private final Kind kind;
+        private final char[] text;
+
+        private Anchor(final int line, final Kind kind, final String text) {
+            this.line = line;
+            this.kind = kind;
+            this.text = text.toCharArray();
+        }
+
+        int line() {
+            return line;
+        }
+
+        /**
+         * Checks the (trimmed) line between start (inclusive) and end (exclusive) against the anchor, without creating any String.
+         */
+        boolean matches(final CharSequence line, final int start, final int end) {
+            final int length = end - start;
+            switch (kind) {
+                case EQUALS:
+                    return length == text.length && regionMatches(line, start);
+                case STARTS_WITH:
+                    return length >= text.length && regionMatches(line, start);
+                default:
+                    for (int i = start; i + text.length <= end; i++) {
+                        if (regionMatches(line, i)) {
+                            return true;
+                        }
+                    }
+                    return false;
+            }
+        }
+
+        private boolean regionMatches(final CharSequence line, final int from) {
+            for (int k = 0; k < text.length; k++) {
+                if (line.charAt(from + k) != text[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Where a field is on its line: which word (counted from 0, or from the end when negative, -1 being the last word),
+     * and, when the word starts with a label (i.e "No.4000070135"), the delimiter the value comes after.
+     */
+    static final class Position {
+
+        //Used when the value is the whole word
+        static final char WHOLE_WORD = 0;
+
+        private final int word;
+        private final char after;
+
+        private Position(final int word, final char after) {
+            this.word = word;
+            this.after = after;
+        }
+
+        /**
+         * @return the index of the word in a line of that many words, or -1 if the line does not have it
+         */
+        int word(final int count) {
+            final int index = word >= 0 ? word : count + word;
+            return index >= 0 && index < count ? index : -1;
+        }
+
+        char after() {
+            return after;
+        }
+    }
+
+    public static final class Builder {
+
+        private final String name;
+        private final List<Anchor> anchors = new ArrayList<>();
+        private final Map<Field, Position> positions = new EnumMap<>(Field.class);
+        private LineRole[] header = new LineRole[0];
+        private LineRole[] footer = new LineRole[0];
+
+        private Builder(final String name) {
+            this.name = name;
+            //Unless the template says otherwise, fields are where the NIBSS advice has them
+            positions.put(Field.ACCOUNT_NUMBER, new Position(1, '.'));
+            positions.put(Field.OPENING_COLLATERAL, new Position(3, ':'));
+            positions.put(Field.TOTAL_DEBIT, new Position(4, Position.WHOLE_WORD));
+            positions.put(Field.TOTAL_CREDIT, new Position(5, Position.WHOLE_WORD));
+            positions.put(Field.OVERALL_NET_POSITION, new Position(4, Position.WHOLE_WORD));
+            positions.put(Field.NET_POSITION_SIDE, new Position(5, Position.WHOLE_WORD));
+        }
+
+        //The line at the given index (counted from 0, blank lines included) must be exactly this text, once trimmed
+        public Builder equalTo(final int line, final String text) {
+            return anchor(line, Anchor.Kind.EQUALS, text);
+        }
+
+        public Builder startsWith(final int line, final String text) {
+            return anchor(line, Anchor.Kind.STARTS_WITH, text);
+        }
+
+        public Builder contains(final int line, final String text) {
+            return anchor(line, Anchor.Kind.CONTAINS, text);
+        }
+
+        //What each of the first lines holds, in order. The lines after them are transactions, up to the footer
+        public Builder header(final LineRole... roles) {
+            this.header = roles.clone();
+            return this;
+        }
+
+        //What each of the last lines holds, in order (the last role is for the last line of the document)
+        public Builder footer(final LineRole... roles) {
+            this.footer = roles.clone();
+            return this;
+        }
+
+        //The field is this whole word of its line (counted from 0, or from the end when negative, -1 being the last word)
+        public Builder field(final Field field, final int word) {
+            positions.put(field, new Position(word, Position.WHOLE_WORD));
+            return this;
+        }
+
+        //The field is what comes after the delimiter in this word of its line, i.e '.' for "No.4000070135"
+        public Builder field(final Field field, final int word, final char after) {
+            if (after == Position.WHOLE_WORD) {
+                throw new IllegalArgumentException("The delimiter of " + field + " cannot be the NUL character");
+            }
+            positions.put(field, new Position(word, after));
+            return this;
+        }
+
+        public LayoutTemplate build() {
+            return new LayoutTemplate(name, header, footer, anchors.toArray(new Anchor[0]), positions.values().toArray(new Position[0]));
+        }
+
+        private Builder anchor(final int line, final Anchor.Kind kind, final String text) {
+            if (line < 0) {
+                throw new IllegalArgumentException("An anchor must be on one of the lines of the document, not " + line);
+            }
+            anchors.add(new Anchor(line, kind, text));
+            return this;
+        }
+    }
+}
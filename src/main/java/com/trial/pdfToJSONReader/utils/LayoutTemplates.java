@@ -0,0 +1,147 @@
+package com.trial.pdfToJSONReader.utils;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This holds every {@link LayoutTemplate} we know, and picks the one a document follows while its first lines are being read. <br>
+ * The anchors of all the templates are compiled once, into a table indexed by line, so every line of a document is only checked
+ * against the anchors that are on that line, whatever the number of templates. A document is never parsed more than once:
+ * the parser holds back its first lines until a template is picked (at the latest on the line of the last anchor),
+ * and then goes on with that template. <br>
+ * Templates are tried in order: the ones registered as Spring beans first, and {@link LayoutTemplate#NIBSS_SETTLEMENT_ADVICE} last,
+ * which is also the one used when no template matches, so documents we read before keep being read the same way.
+ */
+@Service
+public class LayoutTemplates {
+
+    private static final LayoutTemplate FALLBACK = LayoutTemplate.NIBSS_SETTLEMENT_ADVICE;
+
+    private final LayoutTemplate[] templates;
+
+    //Line -> the anchors (of every template) on that line, and for every anchor the template it belongs to
+    private final LayoutTemplate.Anchor[][] anchorsByLine;
+    private final int[][] ownersByLine;
+    private final int[] anchorCounts;
+
+    @Autowired
+    public LayoutTemplates(final ObjectProvider<LayoutTemplate> templates) {
+        this(templates.orderedStream().collect(Collectors.toList()));
+    }
+
+    public LayoutTemplates(final List<LayoutTemplate> templates) {
+        final List<LayoutTemplate> all = new ArrayList<>(templates);
+        all.remove(FALLBACK);
+        all.add(FALLBACK);
+        this.templates = all.toArray(new LayoutTemplate[0]);
+
+        int lines = 0;
+        for (LayoutTemplate template : this.templates) {
+            for (LayoutTemplate.Anchor anchor : template.anchors()) {
+                lines = Math.max(lines, anchor.line() + 1);
+            }
+        }
+        final List<List<Integer>> owners = new ArrayList<>();
+        final List<List<LayoutTemplate.Anchor>> anchors = new ArrayList<>();
+        for (int line = 0; line < lines; line++) {
+            owners.add(new ArrayList<>());
+            anchors.add(new ArrayList<>());
+        }
+        this.anchorCounts = new int[this.templates.length];
+        for (int t = 0; t < this.templates.length; t++) {
+            for (LayoutTemplate.Anchor anchor : this.templates[t].anchors()) {
+                owners.get(anchor.line()).add(t);
+                anchors.get(anchor.line()).add(anchor);
+                anchorCounts[t]++;
+            }
+        }
+        this.anchorsByLine = new LayoutTemplate.Anchor[lines][];
+        this.ownersByLine = new int[lines][];
+        for (int line = 0; line < lines; line++) {
+            anchorsByLine[line] = anchors.get(line).toArray(new LayoutTemplate.Anchor[0]);
+            ownersByLine[line] = owners.get(line).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * @return only the NIBSS settlement advice template, which {@link AdviceParser} uses when it is not given any templates
+     */
+    static LayoutTemplates defaults() {
+        return new LayoutTemplates(Collections.emptyList());
+    }
+
+    /**
+     * @return the templates in the order they are tried
+     */
+    public List<LayoutTemplate> templates() {
+        return Collections.unmodifiableList(Arrays.asList(templates));
+    }
+
+    /**
+     * @return the most lines of a document that ever need to be seen before a template is picked
+     */
+    int fingerprintLines() {
+        return anchorsByLine.length;
+    }
+
+    /**
+     * @return a new selection, which picks the template of a single document as its lines are offered to it
+     */
+    Selection select() {
+        return new Selection();
+    }
+
+    final class Selection {
+
+        //Templates with an anchor that did not match are dead, and for the others, the number of anchors that did match
+        private final boolean[] dead = new boolean[templates.length];
+        private final int[] matched = new int[templates.length];
+
+        /**
+         * Checks the (trimmed) line at the given index against the anchors on it.
+         * @return the template of the document, or null if we need to see more lines to know
+         */
+        LayoutTemplate offer(final CharSequence text, final int start, final int end, final int index) {
+            if (index < anchorsByLine.length) {
+                final LayoutTemplate.Anchor[] anchors = anchorsByLine[index];
+                final int[] owners = ownersByLine[index];
+                for (int a = 0; a < anchors.length; a++) {
+                    final int owner = owners[a];
+                    if (!dead[owner]) {
+                        if (anchors[a].matches(text, start, end)) {
+                            matched[owner]++;
+                        } else {
+                            dead[owner] = true;
+                        }
+                    }
+                }
+            }
+            //The first template still in the running decides: if all its anchors matched it is the one, otherwise we wait for more lines
+            for (int t = 0; t < templates.length; t++) {
+                if (!dead[t]) {
+                    return matched[t] == anchorCounts[t] ? templates[t] : null;
+                }
+            }
+            return FALLBACK;
+        }
+
+        /**
+         * @return the template of a document that ended before we knew it: the first one whose anchors all matched, if any
+         */
+        LayoutTemplate finish() {
+            for (int t = 0; t < templates.length; t++) {
+                if (!dead[t] && matched[t] == anchorCounts[t]) {
+                    return templates[t];
+                }
+            }
+            return FALLBACK;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.trial.pdfToJSONReader.utils;
+
+/**
+ * What a line of an advice holds, as declared by a {@link LayoutTemplate}. <br>
+ * The way each kind of line is read (which words hold which amount and so on) lives in {@link AdviceParser},
+ * a template only says which line is which.
+ */
+public enum LineRole {
+
+    //A line we do not care about (i.e an empty line between two sections)
+    SKIP,
+
+    //The title of the advice, i.e "INTER-BANK SETTLEMENT ADVICE"
+    TITLE,
+
+    //A line added as it is to the meta information (addresses, dates, sessions ...)
+    META,
+
+    //The account number and opening collateral, i.e "Account No.4000070135 Opening Collateral:N3,390,000,000.00"
+    ACCOUNT,
+
+    //The heading of the transactions, holding the debit and credit currencies, i.e "S/N Payment Scheme SchemeType Debit (NGN) Credit (NGN)"
+    CURRENCIES,
+
+    //A single transaction, i.e "2  FMDQ Transaction Fee FMDQ 2,199,733.83 -"
+    TRANSACTION,
+
+    //The total debit and total credit, i.e "Total Debit / Credit(NGN) 549,345,888.61 4,320,410,494.37"
+    TOTALS,
+
+    //The overall net position, i.e "OVERALL NET POSITION (NGN) 3,771,064,605.76 CR"
+    NET_POSITION,
+
+    //The closing line, added to the meta information (or read as a transaction when it is empty)
+    CLOSING
+}
@@ -0,0 +1,70 @@
+package com.trial.pdfToJSONReader.utils;
+
+import java.util.Arrays;
+
+/**
+ * This splits a single line of text into words exactly the way {@code line.split(" ")} would, except that it does not create any String.
+ * Every word is simply remembered as a (start, end) pair of offsets into the text, and the arrays holding these offsets are reused
+ * from one line to the next, so tokenizing a line costs no allocation at all once the arrays are big enough.
+ */
+final class LineTokenizer {
+
+    private static final char WORD_SEPARATOR = ' ';
+
+    private CharSequence text;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+
+    /**
+     * Splits the text between start (inclusive) and end (exclusive) into words.
+     * The range is expected to be trimmed, so just like String.split, consecutive spaces give empty words,
+     * and an empty range gives a single empty word.
+     */
+    void tokenize(final CharSequence text, final int start, final int end) {
+        this.text = text;
+        this.count = 0;
+        int wordStart = start;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == WORD_SEPARATOR) {
+                add(wordStart, i);
+                wordStart = i + 1;
+            }
+        }
+        add(wordStart, end);
+    }
+
+    int count() {
+        return count;
+    }
+
+    int start(final int word) {
+        check(word);
+        return starts[word];
+    }
+
+    int end(final int word) {
+        check(word);
+        return ends[word];
+    }
+
+    String string(final int word) {
+        return text.subSequence(start(word), end(word)).toString();
+    }
+
+    private void check(final int word) {
+        if (word < 0 || word >= count) {
+            throw new IllegalArgumentException(String.format("Expected at least %d words but the line has %d", word + 1, count));
+        }
+    }
+
+    private void add(final int start, final int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+}
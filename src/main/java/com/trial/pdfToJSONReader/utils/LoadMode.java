@@ -0,0 +1,21 @@
+package com.trial.pdfToJSONReader.utils;
+
+/**
+ * This is how a PDF document is held while we read it, see {@link DocumentLoader}. <br>
+ * Small advices are best read fully in memory, but a statement of a few hundred pages can take a lot of heap,
+ * so for those we can let PDFBox spill what it works on into temporary files, or map the file into memory outside the heap.
+ */
+public enum LoadMode {
+
+    //Everything PDFBox works on is kept on the heap (this is the PDFBox default)
+    MEMORY,
+
+    //PDFBox keeps what it works on in the heap up to the configured maximum, and in temporary files beyond it
+    MIXED,
+
+    //PDFBox keeps everything it works on in temporary files
+    TEMP_FILE,
+
+    //The file is mapped into memory outside the heap, and PDFBox works on it like in MIXED
+    MAPPED
+}
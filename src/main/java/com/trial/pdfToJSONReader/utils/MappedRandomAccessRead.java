@@ -0,0 +1,135 @@
+package com.trial.pdfToJSONReader.utils;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This lets PDFBox read a file that is mapped into memory, so the bytes of the file live in the page cache
+ * rather than being copied into the heap. The channel is closed straight after mapping, the mapping stays valid on its own. <br>
+ * Like every other {@link RandomAccessRead}, it is meant to be used by one thread at a time.
+ */
+final class MappedRandomAccessRead implements RandomAccessRead {
+
+    private ByteBuffer buffer;
+    private final int length;
+
+    private MappedRandomAccessRead(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.length = buffer.limit();
+    }
+
+    /**
+     * @throws IOException if the file cannot be opened, or if it is too large to be mapped in one piece (2GB or more)
+     */
+    static MappedRandomAccessRead map(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be mapped: " + path);
+            }
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new MappedRandomAccessRead(mapped);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes) throws IOException {
+        return read(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int count) throws IOException {
+        checkClosed();
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        final int read = Math.min(count, buffer.remaining());
+        buffer.get(bytes, offset, read);
+        return read;
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+        checkClosed();
+        return buffer.position();
+    }
+
+    @Override
+    public void seek(final long position) throws IOException {
+        checkClosed();
+        if (position < 0) {
+            throw new IOException("Invalid position " + position);
+        }
+        buffer.position((int) Math.min(position, length));
+    }
+
+    @Override
+    public long length() throws IOException {
+        checkClosed();
+        return length;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return buffer == null;
+    }
+
+    @Override
+    public int peek() throws IOException {
+        checkClosed();
+        return buffer.hasRemaining() ? buffer.get(buffer.position()) & 0xFF : -1;
+    }
+
+    @Override
+    public void rewind(final int bytes) throws IOException {
+        seek(getPosition() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(final int count) throws IOException {
+        checkClosed();
+        if (count > buffer.remaining()) {
+            throw new EOFException("Premature end of file, " + count + " bytes asked for but " + buffer.remaining() + " left");
+        }
+        final byte[] bytes = new byte[count];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException {
+        checkClosed();
+        return !buffer.hasRemaining();
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkClosed();
+        return buffer.remaining();
+    }
+
+    @Override
+    public void close() {
+        //The mapping itself is released once the buffer is garbage collected
+        buffer = null;
+    }
+
+    private void checkClosed() throws IOException {
+        if (buffer == null) {
+            throw new IOException("The mapped file is already closed");
+        }
+    }
+}
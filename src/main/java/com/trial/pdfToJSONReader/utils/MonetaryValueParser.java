@@ -0,0 +1,77 @@
+package com.trial.pdfToJSONReader.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * This takes a money-like piece of text (i.e "N3,390,000,000.00" or "4,320,410,494.37") and returns its value as a BigDecimal,
+ * which is a data structure design to hold monetary value. <br>
+ * Every character that is not a digit or a dot is ignored, so currency signs and thousand separators simply drop out,
+ * and a piece of text with no digits at all (i.e "-") is worth zero. The value is built straight from the digits we walk over,
+ * without first copying the cleaned up text into a new String, and the result has the same value and scale
+ * as {@code new BigDecimal(text.replaceAll("[^0-9.]", ""))}.
+ */
+public final class MonetaryValueParser {
+
+    /**
+     * A long holds any 18 digit number, longer amounts (which we do not expect in practice) take the slower BigDecimal route.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private MonetaryValueParser() {
+    }
+
+    public static BigDecimal parse(final CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * @param text The text holding the amount
+     * @param start Where the amount starts in the text (inclusive)
+     * @param end Where the amount ends in the text (exclusive)
+     * @return the amount, or zero if there are no digits in it
+     * @throws NumberFormatException if the amount holds more than one dot, or a dot without any digit
+     */
+    public static BigDecimal parse(final CharSequence text, final int start, final int end) {
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits < MAX_LONG_DIGITS) {
+                    unscaled = unscaled * 10 + (c - '0');
+                }
+                digits++;
+                if (dot) {
+                    scale++;
+                }
+            } else if (c == '.') {
+                if (dot) {
+                    throw new NumberFormatException("More than one decimal point in " + text.subSequence(start, end));
+                }
+                dot = true;
+            }
+        }
+
+        if (digits == 0) {
+            if (dot) {
+                throw new NumberFormatException("No digits in " + text.subSequence(start, end));
+            }
+            return BigDecimal.ZERO;
+        }
+        return digits <= MAX_LONG_DIGITS ? BigDecimal.valueOf(unscaled, scale) : parseLong(text, start, end);
+    }
+
+    private static BigDecimal parseLong(final CharSequence text, final int start, final int end) {
+        final StringBuilder cleaned = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            final char c = text.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '.') {
+                cleaned.append(c);
+            }
+        }
+        return new BigDecimal(cleaned.toString());
+    }
+}
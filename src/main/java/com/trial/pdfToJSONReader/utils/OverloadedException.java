@@ -0,0 +1,34 @@
+package com.trial.pdfToJSONReader.utils;
+
+/**
+ * Thrown when {@link AdmissionControl} turns a read away because this node is already reading as much as it is allowed to:
+ * either the queue of reads waiting for their turn is full (or the read could not wait in it at all), or the read waited in it for
+ * longer than the configured timeout.
+ * The caller is expected to try again later, after {@link #getRetryAfterSeconds()}.
+ */
+public class OverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean queueFull;
+    private final long retryAfterSeconds;
+
+    public OverloadedException(final boolean queueFull, final long retryAfterSeconds) {
+        super(queueFull ? "Too many documents are waiting to be read, try again later"
+                : "No document could be read in time, try again later");
+        this.queueFull = queueFull;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return true if the read was turned away straight away, because the queue was full or the read could not wait,
+     * false if it timed out waiting in it
+     */
+    public boolean isQueueFull() {
+        return queueFull;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
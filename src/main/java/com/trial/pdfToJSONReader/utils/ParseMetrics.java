@@ -0,0 +1,95 @@
+package com.trial.pdfToJSONReader.utils;
+
+import io.micrometer.core.instrument.*;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This holds every metric we record while reading files, so we can tell where the time of a slow read goes. <br>
+ * Each stage has its own timer (pdf.parse.stage, tagged load, strip, parse or serialize) with a percentile histogram,
+ * so p99 latency can be alerted on per stage, and there are counters for the pages, lines, transactions and bytes we read,
+ * a gauge of the files being read right now, a counter of failures tagged with their cause
+ * and a counter of the files whose totals did not match their transactions.
+ * Everything is exposed through Actuator, at /actuator/metrics and /actuator/prometheus.
+ */
+@Service
+public class ParseMetrics {
+
+    private static final String STAGE_TIMER = "pdf.parse.stage";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer loadTimer;
+    private final Timer stripTimer;
+    private final Timer parseTimer;
+    private final Timer serializeTimer;
+    private final Counter pages;
+    private final Counter lines;
+    private final Counter transactions;
+    private final Counter bytes;
+    private final Counter invalidTotals;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ParseMetrics(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.loadTimer = stageTimer("load", "Loading the PDF document");
+        this.stripTimer = stageTimer("strip", "Extracting the text of the document with PDFBox");
+        this.parseTimer = stageTimer("parse", "Parsing the extracted lines into the JSON model");
+        this.serializeTimer = stageTimer("serialize", "Writing a response, or the JSON of a watched file");
+        this.pages = Counter.builder("pdf.parse.pages").description("Pages read").register(meterRegistry);
+        this.lines = Counter.builder("pdf.parse.lines").description("Lines of text parsed").register(meterRegistry);
+        this.transactions = Counter.builder("pdf.parse.transactions").description("Transactions found").register(meterRegistry);
+        this.bytes = Counter.builder("pdf.parse.bytes").description("Bytes of PDF read").baseUnit("bytes").register(meterRegistry);
+        this.invalidTotals = Counter.builder("pdf.parse.invalid.totals").description("Files whose totals do not match their transactions")
+                .register(meterRegistry);
+        Gauge.builder("pdf.parse.in.flight", inFlight, AtomicInteger::get).description("Files being read right now")
+                .register(meterRegistry);
+    }
+
+    public void started() {
+        inFlight.incrementAndGet();
+    }
+
+    public void finished() {
+        inFlight.decrementAndGet();
+    }
+
+    public void loaded(final long nanos, final long fileBytes, final int pageCount) {
+        loadTimer.record(nanos, TimeUnit.NANOSECONDS);
+        bytes.increment(fileBytes);
+        pages.increment(pageCount);
+    }
+
+    public void extracted(final long stripNanos, final long parseNanos, final int lineCount, final int transactionCount) {
+        stripTimer.record(stripNanos, TimeUnit.NANOSECONDS);
+        parseTimer.record(parseNanos, TimeUnit.NANOSECONDS);
+        lines.increment(lineCount);
+        transactions.increment(transactionCount);
+    }
+
+    public void invalidTotals() {
+        invalidTotals.increment();
+    }
+
+    public void serialized(final long nanos) {
+        serializeTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a failed read, tagged with the kind of exception at the root of it (i.e FileNotFoundException, IllegalArgumentException).
+     */
+    public void failed(final Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        Counter.builder("pdf.parse.failures").description("Files that could not be read")
+                .tag("cause", cause.getClass().getSimpleName()).register(meterRegistry).increment();
+    }
+
+    private Timer stageTimer(final String stage, final String description) {
+        return Timer.builder(STAGE_TIMER).description(description).tag("stage", stage)
+                .publishPercentileHistogram().register(meterRegistry);
+    }
+}
@@ -0,0 +1,71 @@
+package com.trial.pdfToJSONReader.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The two executors the asynchronous reads (see {@link AsyncFileReader}) run on, so that waiting on storage and parsing never
+ * hold a request thread, nor each other. <br>
+ * The I/O executor waits on storage. On a runtime with virtual threads (Java 21 onwards) it runs every task on a virtual thread of its own,
+ * so any number of reads can wait on slow storage at once; on the runtime we build for they do not exist yet,
+ * so it is a pool of the configured number of platform threads. Nothing else has to change to move to virtual threads: running the same
+ * build on a newer runtime is enough. <br>
+ * The parse executor does the CPU work, on a fixed pool (one thread per core unless configured), so a burst of reads never runs
+ * more parses at once than there are cores to run them.
+ */
+@Service
+public class ReadExecutors implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadExecutors.class);
+
+    private final ExecutorService io;
+    private final ExecutorService parse;
+    private final boolean virtualThreads;
+
+    public ReadExecutors(@Value("${pdf.async.virtual-threads:true}") final boolean virtualThreads,
+                         @Value("${pdf.async.io-threads:64}") final int ioThreads,
+                         @Value("${pdf.async.parse-threads:0}") final int parseThreads) {
+        final ExecutorService virtual = virtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+        this.virtualThreads = virtual != null;
+        this.io = virtual != null ? virtual : Executors.newFixedThreadPool(Math.max(1, ioThreads), new NamedThreadFactory("pdf-io-"));
+        this.parse = Executors.newFixedThreadPool(parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors(),
+                new NamedThreadFactory("pdf-parse-"));
+        LOGGER.info("Asynchronous reads wait on storage on {}", this.virtualThreads ? "virtual threads" : ioThreads + " platform threads");
+    }
+
+    public ExecutorService io() {
+        return io;
+    }
+
+    public ExecutorService parse() {
+        return parse;
+    }
+
+    /**
+     * @return true if the I/O executor runs on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void destroy() {
+        io.shutdownNow();
+        parse.shutdownNow();
+    }
+
+    //Executors.newVirtualThreadPerTaskExecutor() only exists from Java 21, so it is looked up rather than called
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
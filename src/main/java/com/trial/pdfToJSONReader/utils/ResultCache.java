@@ -0,0 +1,431 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.CacheStatistics;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * This keeps the results of the files we have already read, so a file that is sent to us again (retries, reconciliations, audits)
+ * does not have to go through PDFBox a second time. <br>
+ * Results are keyed on the SHA-256 of the file content, so the same advice is found again whatever path it is sent from.
+ * To avoid hashing a file we have seen before, we also remember the hash of every path together with its size and last modified time,
+ * and only hash the file again if one of them has changed. <br>
+ * Entries are evicted once there are more than the configured number of them (least recently used first) or once they are older
+ * than the configured time to live. When a directory is configured, results are also written there, so they survive a restart. <br>
+ * The directory is swept periodically: expired results (and temporary files left behind by a crash) are deleted, and once the results
+ * take more than the configured size, the oldest ones are deleted until they fit again. A write that takes the directory over that size
+ * asks for a sweep straight away, so it never grows much past it between two sweeps. <br>
+ * Every caller gets a copy of its own of the result, and the cache keeps a copy of its own too, so a caller that changes the result
+ * it was given never changes what the other callers (or the cache) see. <br>
+ * The counters are also published as metrics (pdf.cache.*), next to the ones of {@link ParseMetrics}.
+ */
+@Service
+public class ResultCache implements MeterBinder, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultCache.class);
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final String DISK_SUFFIX = ".json";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path directory;
+    private final long diskMaxBytes;
+    private final long sweepIntervalMillis;
+
+    //Content hash -> result, kept in access order so the least recently used entry is the first one evicted
+    private final Map<String, Entry> entries;
+
+    //Path -> (size, last modified, content hash), so a file we have seen before is not hashed again
+    private final Map<String, Fingerprint> fingerprints;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    //What the results on disk take, as of the last sweep plus what was written since (so an overwritten result is counted twice until then)
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicBoolean sweepRequested = new AtomicBoolean();
+    private final ScheduledExecutorService sweeper;
+
+    public ResultCache(final ObjectMapper objectMapper,
+                       @Value("${pdf.cache.enabled:true}") final boolean enabled,
+                       @Value("${pdf.cache.max-entries:1000}") final int maxEntries,
+                       @Value("${pdf.cache.ttl:1h}") final Duration ttl,
+                       @Value("${pdf.cache.directory:}") final String directory,
+                       @Value("${pdf.cache.disk-max-size:1GB}") final DataSize diskMaxSize,
+                       @Value("${pdf.cache.disk-sweep-interval:10m}") final Duration diskSweepInterval) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled && maxEntries > 0;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.directory = this.enabled && !directory.isEmpty() ? createDirectory(Paths.get(directory)) : null;
+        this.diskMaxBytes = diskMaxSize.toBytes();
+        this.sweepIntervalMillis = Math.max(1, diskSweepInterval.toMillis());
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                if (size() > ResultCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.fingerprints = new LinkedHashMap<String, Fingerprint>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Fingerprint> eldest) {
+                return size() > ResultCache.this.maxEntries;
+            }
+        };
+        if (this.directory != null) {
+            //The first sweep counts (and trims) what an earlier run left on disk, before anything is written
+            sweep();
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("pdf-cache-sweep-"));
+            this.sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    /**
+     * This method gives back the result of the file at the given path, from the cache if we have read the same content before,
+     * otherwise by calling the reader (and keeping what it gives back).
+     * @param pathToFile This is the path to the file we want to read
+     * @param reader This reads the file when we do not have its result yet
+     * @return {@link SampleModel}. The result of reading the file.
+     */
+    public SampleModel get(final String pathToFile, final Function<String, SampleModel> reader) {
+        if (!enabled) {
+            return reader.apply(pathToFile);
+        }
+
+        final String hash = hash(pathToFile);
+        if (hash == null) {
+            //We could not even look at the file, so let the reader fail with the proper error
+            misses.incrementAndGet();
+            return reader.apply(pathToFile);
+        }
+
+        final SampleModel cached = lookup(hash);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        final SampleModel sampleModel = reader.apply(pathToFile);
+        put(hash, sampleModel);
+        return sampleModel;
+    }
+
+    /**
+     * Same as {@link #get(String, Function)}, for a reader that gives back a future rather than waiting for the file to be read.
+     * The file is hashed on the calling thread, and the result is kept once the future completes (unless it fails).
+     */
+    public CompletableFuture<SampleModel> getAsync(final String pathToFile,
+                                                   final Function<String, CompletableFuture<SampleModel>> reader) {
+        if (!enabled) {
+            return reader.apply(pathToFile);
+        }
+
+        final String hash = hash(pathToFile);
+        if (hash == null) {
+            misses.incrementAndGet();
+            return reader.apply(pathToFile);
+        }
+
+        final SampleModel cached = lookup(hash);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        misses.incrementAndGet();
+        return reader.apply(pathToFile).thenApply(sampleModel -> {
+            put(hash, sampleModel);
+            return sampleModel;
+        });
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of the cache, and how many results it holds at the moment
+     */
+    public CacheStatistics statistics() {
+        final CacheStatistics statistics = new CacheStatistics();
+        statistics.setEnabled(enabled);
+        statistics.setHits(hits.get());
+        statistics.setDiskHits(diskHits.get());
+        statistics.setMisses(misses.get());
+        statistics.setEvictions(evictions.get());
+        synchronized (entries) {
+            statistics.setSize(entries.size());
+        }
+        return statistics;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("pdf.cache.hits", hits, AtomicLong::get).description("Results found in memory").register(registry);
+        FunctionCounter.builder("pdf.cache.disk.hits", diskHits, AtomicLong::get).description("Results found on disk").register(registry);
+        FunctionCounter.builder("pdf.cache.misses", misses, AtomicLong::get).description("Files that had to be read").register(registry);
+        FunctionCounter.builder("pdf.cache.evictions", evictions, AtomicLong::get).description("Results dropped from the cache")
+                .register(registry);
+        Gauge.builder("pdf.cache.size", this, cache -> cache.statistics().getSize()).description("Results held in memory")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Deletes the expired results on disk, and then the oldest ones until the rest take no more than the configured size.
+     * Runs when the cache is created, then on the sweeper every sweep interval, and whenever a write takes the directory over that size.
+     */
+    private void sweep() {
+        sweepRequested.set(false);
+        final long now = System.currentTimeMillis();
+        final List<DiskResult> kept = new ArrayList<>();
+        long bytes = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                final String name = file.getFileName().toString();
+                try {
+                    final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    final long lastModified = attributes.lastModifiedTime().toMillis();
+                    if (name.endsWith(DISK_SUFFIX)) {
+                        if (now - lastModified < ttlMillis) {
+                            kept.add(new DiskResult(file, attributes.size(), lastModified));
+                            bytes += attributes.size();
+                        } else if (Files.deleteIfExists(file)) {
+                            evictions.incrementAndGet();
+                        }
+                    } else if (name.endsWith(TEMPORARY_SUFFIX) && now - lastModified >= sweepIntervalMillis) {
+                        //A temporary file still there a whole sweep later was left behind by a write that never finished
+                        Files.deleteIfExists(file);
+                    }
+                } catch (NoSuchFileException e) {
+                    //Deleted (or moved in place) since it was listed
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            //Whatever could not be looked at is left for the next sweep
+            LOGGER.warn("Could not sweep the result cache in {}", directory, e);
+        }
+
+        //Over the size, the results written longest ago go first (they would also be the first ones to expire)
+        kept.sort(Comparator.comparingLong(diskResult -> diskResult.lastModified));
+        for (int i = 0; i < kept.size() && bytes > diskMaxBytes; i++) {
+            try {
+                if (Files.deleteIfExists(kept.get(i).file)) {
+                    evictions.incrementAndGet();
+                }
+                bytes -= kept.get(i).size;
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete the cached result {}", kept.get(i).file, e);
+            }
+        }
+        diskBytes.set(bytes);
+    }
+
+    private SampleModel lookup(final String hash) {
+        final long now = System.currentTimeMillis();
+        synchronized (entries) {
+            final Entry entry = entries.get(hash);
+            if (entry != null) {
+                if (now - entry.createdAt < ttlMillis) {
+                    return new SampleModel(entry.sampleModel);
+                }
+                entries.remove(hash);
+                evictions.incrementAndGet();
+            }
+        }
+
+        //Not in memory, but it may still be on disk from an earlier run
+        if (directory != null) {
+            final Path file = directory.resolve(hash + DISK_SUFFIX);
+            try {
+                final long createdAt = Files.getLastModifiedTime(file).toMillis();
+                if (now - createdAt < ttlMillis) {
+                    final SampleModel sampleModel = objectMapper.readValue(file.toFile(), SampleModel.class);
+                    synchronized (entries) {
+                        entries.put(hash, new Entry(sampleModel, createdAt));
+                    }
+                    diskHits.incrementAndGet();
+                    return new SampleModel(sampleModel);
+                }
+                Files.deleteIfExists(file);
+                evictions.incrementAndGet();
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (IOException e) {
+                //The file is read again, as if it had never been cached
+                LOGGER.warn("Could not read the cached result {}", file, e);
+            }
+        }
+        return null;
+    }
+
+    private void put(final String hash, final SampleModel sampleModel) {
+        synchronized (entries) {
+            entries.put(hash, new Entry(new SampleModel(sampleModel), System.currentTimeMillis()));
+        }
+        if (directory != null) {
+            //Write to a temporary file first and move it in place, so a crash never leaves half a result behind
+            try {
+                final Path temporary = Files.createTempFile(directory, hash, TEMPORARY_SUFFIX);
+                objectMapper.writeValue(temporary.toFile(), sampleModel);
+                final long size = Files.size(temporary);
+                Files.move(temporary, directory.resolve(hash + DISK_SUFFIX), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                if (diskBytes.addAndGet(size) > diskMaxBytes && sweepRequested.compareAndSet(false, true)) {
+                    requestSweep();
+                }
+            } catch (IOException e) {
+                //The result is still kept in memory, it just will not survive a restart
+                LOGGER.warn("Could not write the result of {} to {}", hash, directory, e);
+            }
+        }
+    }
+
+    /**
+     * Gives back the content hash of the file, only reading the file when its size or last modified time is not the one we remember.
+     */
+    private String hash(final String pathToFile) {
+        final Path path = Paths.get(pathToFile);
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            final long size = attributes.size();
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+
+            synchronized (fingerprints) {
+                final Fingerprint fingerprint = fingerprints.get(pathToFile);
+                if (fingerprint != null && fingerprint.size == size && fingerprint.lastModified == lastModified) {
+                    return fingerprint.hash;
+                }
+            }
+
+            final String hash = digest(path);
+            synchronized (fingerprints) {
+                fingerprints.put(pathToFile, new Fingerprint(size, lastModified, hash));
+            }
+            return hash;
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static String digest(final Path path) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        final byte[] bytes = digest.digest();
+        final char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static Path createDirectory(final Path directory) {
+        try {
+            return Files.createDirectories(directory);
+        } catch (IOException e) {
+            LOGGER.error("Could not create the result cache directory {}", directory, e);
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    private void requestSweep() {
+        try {
+            sweeper.execute(this::sweep);
+        } catch (RejectedExecutionException e) {
+            //We are shutting down, the next start sweeps instead
+        }
+    }
+
+    private static final class DiskResult {
+        private final Path file;
+        private final long size;
+        private final long lastModified;
+
+        private DiskResult(final Path file, final long size, final long lastModified) {
+            this.file = file;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final class Entry {
+        private final SampleModel sampleModel;
+        private final long createdAt;
+
+        private Entry(final SampleModel sampleModel, final long createdAt) {
+            this.sampleModel = sampleModel;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Fingerprint {
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+
+        private Fingerprint(final long size, final long lastModified, final String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+}
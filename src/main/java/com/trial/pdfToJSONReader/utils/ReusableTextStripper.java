@@ -0,0 +1,23 @@
+package com.trial.pdfToJSONReader.utils;
+
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+
+/**
+ * A {@link PDFTextStripper} that is kept and used again for one document after the other (by a single thread at a time),
+ * rather than being created for every document. <br>
+ * The stripper keeps a reference to the last document and writer it worked on, so once a document is done we let go of them,
+ * otherwise every thread holding a stripper would keep its last document (and everything parsed from it) alive.
+ */
+final class ReusableTextStripper extends PDFTextStripper {
+
+    ReusableTextStripper() throws IOException {
+        super();
+    }
+
+    void release() {
+        document = null;
+        output = null;
+    }
+}
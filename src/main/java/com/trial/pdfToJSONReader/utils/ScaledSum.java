@@ -0,0 +1,63 @@
+package com.trial.pdfToJSONReader.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * An exact running sum of amounts, kept as a long of the smallest unit seen so far (i.e kobo, for amounts with two decimals)
+ * rather than as a BigDecimal, so the sum is never copied into a new BigDecimal (and BigInteger) for every amount added. <br>
+ * Adding an amount with decimals still costs one small BigDecimal, the amount with its point moved to the right (an amount with none
+ * costs nothing), since BigDecimal gives no other way to read its digits as a long. <br>
+ * Should the sum ever be too large for a long (or an amount have more digits than a long holds), it carries on as a BigDecimal,
+ * so the result is always exact.
+ */
+final class ScaledSum {
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private long unscaled;
+    private int scale;
+
+    //Null as long as the sum fits in the long above
+    private BigDecimal overflow;
+
+    void add(final BigDecimal amount) {
+        if (overflow != null) {
+            overflow = overflow.add(amount);
+            return;
+        }
+        if (amount.signum() == 0) {
+            return;
+        }
+        final int amountScale = amount.scale();
+        if (amountScale < 0 || amountScale >= POWERS_OF_TEN.length) {
+            overflow = value().add(amount);
+            return;
+        }
+        try {
+            //unscaledValue() would build a BigInteger every time, while an amount with a scale of 0 hands its long straight back
+            // (and throws if its digits do not fit in one)
+            long value = amount.movePointRight(amountScale).longValueExact();
+            //Both sides are brought to the larger of the two scales (neither is changed if that overflows)
+            if (amountScale > scale) {
+                unscaled = Math.multiplyExact(unscaled, POWERS_OF_TEN[amountScale - scale]);
+                scale = amountScale;
+            } else if (amountScale < scale) {
+                value = Math.multiplyExact(value, POWERS_OF_TEN[scale - amountScale]);
+            }
+            unscaled = Math.addExact(unscaled, value);
+        } catch (ArithmeticException e) {
+            overflow = value().add(amount);
+        }
+    }
+
+    BigDecimal value() {
+        return overflow != null ? overflow : BigDecimal.valueOf(unscaled, scale);
+    }
+}
@@ -0,0 +1,62 @@
+package com.trial.pdfToJSONReader.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This counts the bytes read from an uploaded body, and fails with an {@link UploadTooLargeException} as soon as
+ * there are more of them than allowed, rather than after the whole body has been read.
+ */
+final class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long count;
+
+    SizeLimitedInputStream(final InputStream inputStream, final long maxBytes) {
+        super(inputStream);
+        this.maxBytes = maxBytes;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int read = super.read();
+        if (read >= 0) {
+            counted(1);
+        }
+        return read;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        final int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            counted(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = super.skip(n);
+        counted(skipped);
+        return skipped;
+    }
+
+    //Marking would let the same bytes be counted twice
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void counted(final long bytes) {
+        count += bytes;
+        if (count > maxBytes) {
+            throw new UploadTooLargeException(maxBytes);
+        }
+    }
+}
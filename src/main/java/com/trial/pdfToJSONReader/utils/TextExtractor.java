@@ -0,0 +1,135 @@
+package com.trial.pdfToJSONReader.utils;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * This writes the text of a document, page after page, with a {@link ReusableTextStripper} of the calling thread. <br>
+ * A document longer than the configured chunk (pdf.extract.chunk-pages) can be split into chunks of that many pages, which are
+ * extracted at the same time on a pool of workers. A PDDocument must never be used by two threads at once, so every worker opens
+ * the document again for itself, and strips its chunk into memory. The first chunk is stripped by the calling thread, straight into
+ * the writer, and the other chunks are then written after it in page order, so the writer gets exactly the text it would get
+ * from a single stripper, and transactions keep coming out of the parser while the later chunks are still being read. <br>
+ * Only documents we can open again (i.e a file, not an upload) are split, the others are always read by a single stripper.
+ */
+@Service
+public class TextExtractor implements DisposableBean {
+
+    /**
+     * Opens a new copy of the document being read, which the caller closes.
+     */
+    interface DocumentSource {
+        PDDocument open() throws IOException;
+    }
+
+    private final int chunkPages;
+
+    //Null when documents are never split
+    private final ExecutorService executor;
+
+    /**
+     * Every thread keeps its own text stripper and uses it again for every document (or chunk) it reads, so we do not set up a new one
+     * per read. A stripper is never shared between threads, and one that failed half way through a document is thrown away.
+     */
+    private final ThreadLocal<ReusableTextStripper> textStrippers = ThreadLocal.withInitial(() -> {
+        try {
+            return new ReusableTextStripper();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    });
+
+    public TextExtractor(@Value("${pdf.extract.chunk-pages:0}") final int chunkPages,
+                         @Value("${pdf.extract.workers:0}") final int workers) {
+        this.chunkPages = chunkPages;
+        if (chunkPages > 0) {
+            //If no number of workers is configured, we use one worker per core, since stripping text is CPU work
+            final int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+            this.executor = Executors.newFixedThreadPool(poolSize, new NamedThreadFactory("pdf-extract-"));
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * This method writes the text of every page of the document, in order, into the writer.
+     * @param document This is the loaded document, which stays open (and is only used by the calling thread)
+     * @param source This opens the same document again for the other chunks, null if it cannot be opened again
+     * @param output This is where the text goes
+     */
+    void writeText(final PDDocument document, final DocumentSource source, final Writer output) throws IOException {
+        final int pages = document.getNumberOfPages();
+        if (executor == null || source == null || pages <= chunkPages) {
+            strip(document, 1, pages, output);
+            return;
+        }
+
+        //Every chunk but the first is handed to the workers straight away, so they run while we strip the first one
+        final List<Future<String>> chunks = new ArrayList<>();
+        for (int start = chunkPages + 1; start <= pages; start += chunkPages) {
+            final int first = start;
+            final int last = Math.min(pages, start + chunkPages - 1);
+            chunks.add(executor.submit(() -> {
+                try (PDDocument copy = source.open()) {
+                    final StringWriter text = new StringWriter();
+                    strip(copy, first, last, text);
+                    return text.toString();
+                }
+            }));
+        }
+        try {
+            strip(document, 1, chunkPages, output);
+            for (Future<String> chunk : chunks) {
+                output.write(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the pages of the document", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            //If we failed half way, the chunks nobody is going to read are not worth finishing
+            for (Future<String> chunk : chunks) {
+                chunk.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void strip(final PDDocument document, final int startPage, final int endPage, final Writer output) throws IOException {
+        final ReusableTextStripper pdfStripper = textStrippers.get();
+        //The stripper is used again, so the page range is set every time, whatever the last document was
+        pdfStripper.setStartPage(startPage);
+        pdfStripper.setEndPage(endPage);
+        try {
+            pdfStripper.writeText(document, output);
+        } catch (IOException | RuntimeException e) {
+            textStrippers.remove();
+            throw e;
+        } finally {
+            pdfStripper.release();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.trial.pdfToJSONReader.utils;
+
+/**
+ * Thrown when an uploaded document is larger than the configured maximum (pdf.upload.max-size).
+ * It is thrown as soon as we know, either from the declared length or while the body is being read,
+ * so we never hold more than the maximum in memory or on disk.
+ */
+public class UploadTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UploadTooLargeException(final long maxBytes) {
+        super(String.format("The uploaded document is larger than the maximum of %d bytes", maxBytes));
+    }
+}
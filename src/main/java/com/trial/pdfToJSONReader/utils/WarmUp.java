@@ -0,0 +1,97 @@
+package com.trial.pdfToJSONReader.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first documents read after a deploy are several times slower than the ones after them, since the fonts, glyph lists
+ * and code paths of PDFBox (and our own) are still cold. So before the application says it is ready (the readiness probe only
+ * goes green once every ApplicationRunner is done), we read a bundled sample advice the configured number of times. <br>
+ * How long the application took to start, how long the warm-up took, and how much slower the first read of the sample was than
+ * the last one (which is what the first real request would have paid) are logged, and published as pdf.warmup.* metrics. <br>
+ * The reads of the warm-up are not recorded in the pdf.parse.* metrics, whose percentiles would otherwise start out skewed by
+ * the slowest reads the application ever does, of a file nobody asked for.
+ */
+@Service
+public class WarmUp implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmUp.class);
+    private static final String SAMPLE = "warmup/sample-advice.pdf";
+
+    private final FileReader fileReader;
+    private final int iterations;
+
+    private volatile long startupMillis;
+    private volatile long warmUpNanos;
+    private volatile long firstReadNanos;
+    private volatile long lastReadNanos;
+
+    public WarmUp(final FileReader fileReader, final MeterRegistry meterRegistry,
+                  @Value("${pdf.warmup.iterations:20}") final int iterations) {
+        //Same reader, but its metrics go to a registry of their own, which nothing publishes
+        this.fileReader = fileReader.withMetrics(new ParseMetrics(new SimpleMeterRegistry()));
+        this.iterations = iterations;
+        TimeGauge.builder("pdf.warmup.startup", this, TimeUnit.MILLISECONDS, warmUp -> warmUp.startupMillis)
+                .description("Time from the start of the JVM to the start of the warm-up").register(meterRegistry);
+        TimeGauge.builder("pdf.warmup.duration", this, TimeUnit.NANOSECONDS, warmUp -> warmUp.warmUpNanos)
+                .description("Time taken by the warm-up").register(meterRegistry);
+        TimeGauge.builder("pdf.warmup.read", this, TimeUnit.NANOSECONDS, warmUp -> warmUp.firstReadNanos).tag("read", "first")
+                .description("Time taken by a read of the sample advice during the warm-up").register(meterRegistry);
+        TimeGauge.builder("pdf.warmup.read", this, TimeUnit.NANOSECONDS, warmUp -> warmUp.lastReadNanos).tag("read", "last")
+                .description("Time taken by a read of the sample advice during the warm-up").register(meterRegistry);
+    }
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        if (iterations <= 0) {
+            return;
+        }
+        startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        final byte[] sample;
+        try (InputStream inputStream = new ClassPathResource(SAMPLE).getInputStream()) {
+            sample = StreamUtils.copyToByteArray(inputStream);
+        } catch (IOException e) {
+            //Without the sample we simply start cold, which is slower but not wrong
+            LOGGER.warn("Could not load the sample advice {}, starting cold", SAMPLE, e);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            final long readStart = System.nanoTime();
+            try {
+                fileReader.read(new ByteArrayInputStream(sample), sample.length);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not read the sample advice {}, the warm-up stops here", SAMPLE, e);
+                return;
+            }
+            final long readNanos = System.nanoTime() - readStart;
+            if (i == 0) {
+                firstReadNanos = readNanos;
+            }
+            lastReadNanos = readNanos;
+        }
+        warmUpNanos = System.nanoTime() - start;
+
+        LOGGER.info("Started in {} ms, warmed up with {} reads of the sample advice in {} ms: the first read took {} ms and the last one {} ms, "
+                        + "so the first request saves about {} ms",
+                startupMillis, iterations, TimeUnit.NANOSECONDS.toMillis(warmUpNanos), TimeUnit.NANOSECONDS.toMillis(firstReadNanos),
+                TimeUnit.NANOSECONDS.toMillis(lastReadNanos), TimeUnit.NANOSECONDS.toMillis(firstReadNanos - lastReadNanos));
+    }
+}
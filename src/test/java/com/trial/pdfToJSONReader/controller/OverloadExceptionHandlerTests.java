@@ -0,0 +1,87 @@
+package com.trial.pdfToJSONReader.controller;
+
+import com.trial.pdfToJSONReader.utils.AdmissionControl;
+import com.trial.pdfToJSONReader.utils.SampleAdvices;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//A single read may run at a time, and a single one may wait for it, for a short while
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"pdf.admission.max-concurrent=1", "pdf.admission.queue-capacity=1", "pdf.admission.queue-timeout=200ms",
+		"pdf.admission.retry-after=7s", "pdf.warmup.iterations=0"})
+class OverloadExceptionHandlerTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private AdmissionControl admissionControl;
+
+	@TempDir
+	Path directory;
+
+	private AppRequestObject request;
+
+	@BeforeEach
+	void writeAdvice() throws Exception {
+		request = new AppRequestObject(SampleAdvices.write(directory.resolve("a.pdf"), SampleAdvices.sample()).toString());
+	}
+
+	@Test
+	void aFullQueueIsAnsweredWith429() throws Exception {
+		final AdmissionControl.Permit running = admissionControl.acquire(10);
+		try (running) {
+			final CompletableFuture<AdmissionControl.Permit> queued = admissionControl.acquireAsync(10);
+			try {
+				assertOverloaded(HttpStatus.TOO_MANY_REQUESTS, read(MediaType.APPLICATION_JSON));
+			} finally {
+				queued.cancel(false);
+			}
+		}
+	}
+
+	@Test
+	void aReadThatWaitedTooLongIsAnsweredWith503() throws Exception {
+		final AdmissionControl.Permit running = admissionControl.acquire(10);
+		try (running) {
+			assertOverloaded(HttpStatus.SERVICE_UNAVAILABLE, read(MediaType.APPLICATION_JSON));
+		}
+		assertEquals(HttpStatus.OK, read(MediaType.APPLICATION_JSON).getStatusCode());
+	}
+
+	@Test
+	void aStreamedReadThatCannotStartIsAnsweredWith429() throws Exception {
+		final AdmissionControl.Permit running = admissionControl.acquire(10);
+		try (running) {
+			assertOverloaded(HttpStatus.TOO_MANY_REQUESTS, read(MediaType.APPLICATION_NDJSON));
+		}
+		assertEquals(HttpStatus.OK, read(MediaType.APPLICATION_NDJSON).getStatusCode());
+	}
+
+	private ResponseEntity<String> read(final MediaType accept) {
+		final HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setAccept(Collections.singletonList(accept));
+		return restTemplate.postForEntity("/pdf/read", new HttpEntity<>(request, headers), String.class);
+	}
+
+	private static void assertOverloaded(final HttpStatus expected, final ResponseEntity<String> response) {
+		assertEquals(expected, response.getStatusCode());
+		assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+	}
+}
@@ -0,0 +1,118 @@
+package com.trial.pdfToJSONReader.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.CacheStatistics;
+import com.trial.pdfToJSONReader.entities.Job;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.entities.Transaction;
+import com.trial.pdfToJSONReader.utils.AdviceParser;
+import com.trial.pdfToJSONReader.utils.ParseMetrics;
+import com.trial.pdfToJSONReader.utils.ReaderFixtures;
+import com.trial.pdfToJSONReader.utils.SampleAdvices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedCborHttpMessageConverterTests {
+
+	private final TimedCborHttpMessageConverter converter =
+			new TimedCborHttpMessageConverter(new Jackson2ObjectMapperBuilder(), ReaderFixtures.disabledMetrics());
+
+	@Test
+	void readsBackExactlyWhatItWrote() throws IOException {
+		final SampleModel written = advice(1000);
+
+		final SampleModel read = roundTrip(written);
+
+		//BigDecimal.equals also compares the scale, so "3390000000.00" must not come back as "3.39E+9" or "3390000000"
+		assertEquals(written.getOpeningCollateral(), read.getOpeningCollateral());
+		assertEquals(written.getTotalDebit(), read.getTotalDebit());
+		assertEquals(written.getTotalCredit(), read.getTotalCredit());
+		assertEquals(written.getOverallNetPosition(), read.getOverallNetPosition());
+		assertEquals(written.getTitle(), read.getTitle());
+		assertEquals(written.getAccountNumber(), read.getAccountNumber());
+		assertEquals(written.getMetaInformation(), read.getMetaInformation());
+		assertEquals(written.getDebitCurrency(), read.getDebitCurrency());
+		assertEquals(written.getCreditCurrency(), read.getCreditCurrency());
+		assertEquals(written.getTransactions().size(), read.getTransactions().size());
+		for (int i = 0; i < written.getTransactions().size(); i++) {
+			final Transaction expected = written.getTransactions().get(i);
+			final Transaction actual = read.getTransactions().get(i);
+			assertEquals(expected.getSerialNumber(), actual.getSerialNumber());
+			assertEquals(expected.getPaymentScheme(), actual.getPaymentScheme());
+			assertEquals(expected.getSchemeType(), actual.getSchemeType());
+			assertEquals(expected.getDebitAmount(), actual.getDebitAmount());
+			assertEquals(expected.getCreditAmount(), actual.getCreditAmount());
+		}
+	}
+
+	@Test
+	void keepsTheScaleOfEveryAmount() throws IOException {
+		final SampleModel written = new SampleModel();
+		written.setOpeningCollateral(new BigDecimal("3390000000.00"));
+		written.setTotalDebit(new BigDecimal("0.10"));
+		written.setTotalCredit(BigDecimal.ZERO);
+		written.setOverallNetPosition(new BigDecimal("123456789012345678901234567890.99"));
+
+		final SampleModel read = roundTrip(written);
+
+		assertEquals(2, read.getOpeningCollateral().scale());
+		assertEquals(new BigDecimal("0.10"), read.getTotalDebit());
+		assertEquals(BigDecimal.ZERO, read.getTotalCredit());
+		assertEquals(new BigDecimal("123456789012345678901234567890.99"), read.getOverallNetPosition());
+	}
+
+	@Test
+	void isSmallerThanTheJson() throws IOException {
+		final SampleModel sampleModel = advice(1000);
+
+		final byte[] json = new ObjectMapper().writeValueAsBytes(sampleModel);
+		final MockHttpOutputMessage cbor = new MockHttpOutputMessage();
+		converter.write(sampleModel, MediaType.APPLICATION_CBOR, cbor);
+
+		assertTrue(cbor.getBodyAsBytes().length < json.length,
+				String.format("CBOR is %d bytes, JSON %d", cbor.getBodyAsBytes().length, json.length));
+	}
+
+	@Test
+	void timesEveryResponseOfOurs() throws IOException {
+		final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		final TimedCborHttpMessageConverter timed =
+				new TimedCborHttpMessageConverter(new Jackson2ObjectMapperBuilder(), new ParseMetrics(meterRegistry));
+
+		timed.write(advice(10), MediaType.APPLICATION_CBOR, new MockHttpOutputMessage());
+		timed.write(new Job(), MediaType.APPLICATION_CBOR, new MockHttpOutputMessage());
+		timed.write(new CacheStatistics(), MediaType.APPLICATION_CBOR, new MockHttpOutputMessage());
+		//Not one of our responses
+		timed.write(Collections.singletonMap("status", 404), MediaType.APPLICATION_CBOR, new MockHttpOutputMessage());
+
+		assertEquals(3, meterRegistry.get("pdf.parse.stage").tag("stage", "serialize").timer().count());
+	}
+
+	private SampleModel roundTrip(final SampleModel sampleModel) throws IOException {
+		final MockHttpOutputMessage output = new MockHttpOutputMessage();
+		converter.write(sampleModel, MediaType.APPLICATION_CBOR, output);
+		assertEquals(MediaType.APPLICATION_CBOR, output.getHeaders().getContentType());
+
+		final MockHttpInputMessage input = new MockHttpInputMessage(output.getBodyAsBytes());
+		input.getHeaders().setContentType(MediaType.APPLICATION_CBOR);
+		return (SampleModel) converter.read(SampleModel.class, input);
+	}
+
+	private static SampleModel advice(final int rows) throws IOException {
+		try (PDDocument document = PDDocument.load(SampleAdvices.withRows(rows))) {
+			return AdviceParser.parse(new PDFTextStripper().getText(document));
+		}
+	}
+}
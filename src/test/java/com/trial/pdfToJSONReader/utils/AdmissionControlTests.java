@@ -0,0 +1,130 @@
+package com.trial.pdfToJSONReader.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTests {
+
+	@Test
+	void readsBeyondTheLimitWaitForTheirTurn() throws Exception {
+		final AdmissionControl admissionControl = new AdmissionControl(2, DataSize.ofMegabytes(100), 4,
+				Duration.ofSeconds(10), Duration.ofSeconds(5));
+		final AdmissionControl.Permit first = admissionControl.acquire(10);
+		final AdmissionControl.Permit second = admissionControl.acquire(10);
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final Future<AdmissionControl.Permit> third = executor.submit(() -> admissionControl.acquire(10));
+			assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+
+			first.close();
+			third.get(5, TimeUnit.SECONDS).close();
+			second.close();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void aFullQueueIsRejectedStraightAway() throws Exception {
+		final AdmissionControl admissionControl = new AdmissionControl(1, DataSize.ofMegabytes(100), 1,
+				Duration.ofSeconds(10), Duration.ofMillis(1500));
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		final AdmissionControl.Permit running = admissionControl.acquire(10);
+		try (running) {
+			final Future<AdmissionControl.Permit> queued = executor.submit(() -> admissionControl.acquire(10));
+			assertThrows(TimeoutException.class, () -> queued.get(200, TimeUnit.MILLISECONDS));
+
+			final OverloadedException rejected = assertThrows(OverloadedException.class, () -> admissionControl.acquire(10));
+			assertTrue(rejected.isQueueFull());
+			//Retry-After is rounded up to whole seconds
+			assertEquals(2, rejected.getRetryAfterSeconds());
+			queued.cancel(true);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void readsThatWaitTooLongAreRejected() {
+		final AdmissionControl admissionControl = new AdmissionControl(1, DataSize.ofMegabytes(100), 4,
+				Duration.ofMillis(100), Duration.ofSeconds(5));
+		final AdmissionControl.Permit running = admissionControl.acquire(10);
+		try (running) {
+			final OverloadedException rejected = assertThrows(OverloadedException.class, () -> admissionControl.acquire(10));
+			assertFalse(rejected.isQueueFull());
+		}
+		//Once the running read is done, and the one that gave up has left the queue, a read starts straight away
+		admissionControl.acquire(10).close();
+	}
+
+	@Test
+	void theBytesInFlightAreCapped() {
+		final AdmissionControl admissionControl = new AdmissionControl(10, DataSize.ofBytes(100), 4,
+				Duration.ofMillis(100), Duration.ofSeconds(5));
+		//A document larger than the cap is still read, as long as it is alone
+		final AdmissionControl.Permit large = admissionControl.acquire(1000);
+		try (large) {
+			assertThrows(OverloadedException.class, () -> admissionControl.acquire(1));
+		}
+		final AdmissionControl.Permit sixty = admissionControl.acquire(60);
+		try (sixty) {
+			assertThrows(OverloadedException.class, () -> admissionControl.acquire(50));
+			admissionControl.acquire(40).close();
+		}
+	}
+
+	@Test
+	void asynchronousReadsWaitInTheSameQueueWithoutAThread() throws Exception {
+		final AdmissionControl admissionControl = new AdmissionControl(1, DataSize.ofMegabytes(100), 2,
+				Duration.ofSeconds(10), Duration.ofSeconds(5));
+		final AdmissionControl.Permit running = admissionControl.acquireAsync(10).get(1, TimeUnit.SECONDS);
+
+		final CompletableFuture<AdmissionControl.Permit> queued = admissionControl.acquireAsync(10);
+		final CompletableFuture<AdmissionControl.Permit> cancelled = admissionControl.acquireAsync(10);
+		assertFalse(queued.isDone());
+		//The queue is full, so the next read is told straight away
+		final ExecutionException full = assertThrows(ExecutionException.class,
+				() -> admissionControl.acquireAsync(10).get(1, TimeUnit.SECONDS));
+		assertTrue(((OverloadedException) full.getCause()).isQueueFull());
+
+		//A caller that gives up leaves the queue, and the first one in line gets the permit once the running read is done
+		cancelled.cancel(false);
+		running.close();
+		queued.get(1, TimeUnit.SECONDS).close();
+		admissionControl.acquire(10).close();
+	}
+
+	@Test
+	void asynchronousReadsThatWaitTooLongAreRejected() throws Exception {
+		final AdmissionControl admissionControl = new AdmissionControl(1, DataSize.ofMegabytes(100), 4,
+				Duration.ofMillis(100), Duration.ofSeconds(5));
+		final AdmissionControl.Permit running = admissionControl.acquire(10);
+		try (running) {
+			final ExecutionException rejected = assertThrows(ExecutionException.class,
+					() -> admissionControl.acquireAsync(10).get(5, TimeUnit.SECONDS));
+			assertFalse(((OverloadedException) rejected.getCause()).isQueueFull());
+		}
+		admissionControl.acquireAsync(10).get(1, TimeUnit.SECONDS).close();
+	}
+
+	@Test
+	void readsThatCannotWaitAreRejectedRatherThanQueued() throws Exception {
+		final AdmissionControl admissionControl = new AdmissionControl(2, DataSize.ofBytes(100), 4,
+				Duration.ofSeconds(10), Duration.ofSeconds(5));
+		final AdmissionControl.Permit running = admissionControl.tryAcquire(60);
+		assertTrue(assertThrows(OverloadedException.class, () -> admissionControl.tryAcquire(50)).isQueueFull());
+
+		//Nor does it jump ahead of a read already waiting, even when it would fit
+		final CompletableFuture<AdmissionControl.Permit> queued = admissionControl.acquireAsync(50);
+		assertThrows(OverloadedException.class, () -> admissionControl.tryAcquire(10));
+		running.close();
+		queued.get(1, TimeUnit.SECONDS).close();
+		admissionControl.tryAcquire(10).close();
+	}
+}
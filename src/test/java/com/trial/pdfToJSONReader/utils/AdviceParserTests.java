@@ -0,0 +1,137 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.entities.TotalsValidation;
+import com.trial.pdfToJSONReader.entities.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdviceParserTests {
+
+	static final String SAMPLE = " \n" +
+			"INTER-BANK SETTLEMENT ADVICE\n" +
+			" \n" +
+			"The Treasurer / Head of Operations\n" +
+			"First Bank Nigeria Ltd\n" +
+			"35 Marina\n" +
+			"Lagos Island, Lagos\n" +
+			"26/06/2020\n" +
+			" Session 3\n" +
+			"Account No.4000070135 Opening Collateral:N3,390,000,000.00\n" +
+			"S/N Payment Scheme SchemeType Debit (NGN) Credit (NGN)\n" +
+			"1  e-Transact Card 20,000.00 -\n" +
+			"2  FMDQ Transaction Fee FMDQ 2,199,733.83 -\n" +
+			"3  Interswitch Card - 4,320,410,494.37\n" +
+			"4  NAPS SETTLEMENT NAPS 112,780,422.02 -\n" +
+			"5  NIBSS e-BillsPay EFT 13,126,182.79 -\n" +
+			"6  NIBSS Instant Payment EFT 421,219,549.97 -\n" +
+			"Total Debit / Credit(NGN) 549,345,888.61 4,320,410,494.37\n" +
+			"OVERALL NET POSITION (NGN) 3,771,064,605.76 CR\n" +
+			"Nigeria Inter-Bank Settlement System              Settlement Advice\n";
+
+	@Test
+	void readsTheSampleAdvice() {
+		final SampleModel sampleModel = AdviceParser.parse(SAMPLE);
+
+		assertEquals("INTER-BANK SETTLEMENT ADVICE", sampleModel.getTitle());
+		assertEquals("4000070135", sampleModel.getAccountNumber());
+		assertEquals(new BigDecimal("3390000000.00"), sampleModel.getOpeningCollateral());
+		assertEquals("The Treasurer / Head of Operations\nFirst Bank Nigeria Ltd\n35 Marina\nLagos Island, Lagos\n26/06/2020\nSession 3\n" +
+				"Nigeria Inter-Bank Settlement System              Settlement Advice\n", sampleModel.getMetaInformation());
+		assertEquals(Transaction.Currency.NGN, sampleModel.getDebitCurrency());
+		assertEquals(Transaction.Currency.NGN, sampleModel.getCreditCurrency());
+		assertEquals(new BigDecimal("549345888.61"), sampleModel.getTotalDebit());
+		assertEquals(new BigDecimal("4320410494.37"), sampleModel.getTotalCredit());
+		assertEquals(new BigDecimal("3771064605.76"), sampleModel.getOverallNetPosition());
+
+		assertEquals(6, sampleModel.getTransactions().size());
+		final Transaction second = sampleModel.getTransactions().get(1);
+		assertEquals(2, second.getSerialNumber());
+		assertEquals("FMDQ Transaction Fee", second.getPaymentScheme());
+		assertEquals("FMDQ", second.getSchemeType());
+		assertEquals(new BigDecimal("2199733.83"), second.getDebitAmount());
+		assertEquals(BigDecimal.ZERO, second.getCreditAmount());
+		final Transaction third = sampleModel.getTransactions().get(2);
+		assertEquals("Interswitch", third.getPaymentScheme());
+		assertEquals(new BigDecimal("4320410494.37"), third.getCreditAmount());
+	}
+
+	@Test
+	void windowsLineEndingsGiveTheSameResult() {
+		final SampleModel unix = AdviceParser.parse(SAMPLE);
+		final SampleModel windows = AdviceParser.parse(SAMPLE.replace("\n", "\r\n"));
+
+		assertEquals(unix.getMetaInformation(), windows.getMetaInformation());
+		assertEquals(unix.getTransactions().size(), windows.getTransactions().size());
+		assertEquals(unix.getOverallNetPosition(), windows.getOverallNetPosition());
+	}
+
+	@Test
+	void blankTextGivesAnEmptyResult() {
+		final SampleModel sampleModel = AdviceParser.parse(" \n\n  \n\n");
+
+		assertNull(sampleModel.getTitle());
+		assertNull(sampleModel.getTransactions());
+	}
+
+	@Test
+	void totalsAreCheckedAgainstTheTransactions() {
+		final TotalsValidation validation = AdviceParser.parse(SAMPLE).getValidation();
+
+		assertTrue(validation.isValid());
+		assertTrue(validation.getMismatches().isEmpty());
+		assertEquals(new BigDecimal("549345888.61"), validation.getTransactionDebit());
+		assertEquals(new BigDecimal("4320410494.37"), validation.getTransactionCredit());
+		assertEquals(new BigDecimal("3771064605.76"), validation.getTransactionNetPosition());
+	}
+
+	@Test
+	void totalsThatDoNotAddUpAreReported() {
+		//A debit total one naira off, and a net position on the wrong side
+		final String text = SAMPLE.replace("549,345,888.61 4,320", "549,345,889.61 4,320").replace("605.76 CR", "605.76 DR");
+
+		final TotalsValidation validation = AdviceParser.parse(text).getValidation();
+
+		assertFalse(validation.isValid());
+		assertEquals(2, validation.getMismatches().size());
+		final TotalsValidation.Mismatch debit = validation.getMismatches().get(0);
+		assertEquals("totalDebit", debit.getField());
+		assertEquals(new BigDecimal("549345889.61"), debit.getStated());
+		assertEquals(new BigDecimal("549345888.61"), debit.getComputed());
+		final TotalsValidation.Mismatch net = validation.getMismatches().get(1);
+		assertEquals("overallNetPosition", net.getField());
+		assertEquals(new BigDecimal("-3771064605.76"), net.getStated());
+		assertEquals(new BigDecimal("3771064605.76"), net.getComputed());
+	}
+
+	@Test
+	void scaledSumsAreExact() {
+		final ScaledSum sum = new ScaledSum();
+		sum.add(new BigDecimal("0.1"));
+		sum.add(new BigDecimal("0.02"));
+		sum.add(new BigDecimal("3"));
+		sum.add(BigDecimal.ZERO);
+		assertEquals(new BigDecimal("3.12"), sum.value());
+
+		//Past what a long holds (or with more digits than it holds), the sum carries on exactly
+		final BigDecimal large = new BigDecimal(Long.MAX_VALUE).movePointLeft(2);
+		sum.add(large);
+		sum.add(large);
+		sum.add(new BigDecimal("12345678901234567890.123"));
+		assertEquals(new BigDecimal("3.120").add(large).add(large).add(new BigDecimal("12345678901234567890.123")), sum.value());
+	}
+
+	@Test
+	void monetaryValuesKeepTheirScale() {
+		assertEquals(new BigDecimal("3390000000.00"), MonetaryValueParser.parse("N3,390,000,000.00"));
+		assertEquals(new BigDecimal("0.5"), MonetaryValueParser.parse(".5"));
+		assertEquals(new BigDecimal("5"), MonetaryValueParser.parse("5."));
+		assertEquals(BigDecimal.ZERO, MonetaryValueParser.parse("-"));
+		assertEquals(new BigDecimal("12345678901234567890.123"), MonetaryValueParser.parse("12,345,678,901,234,567,890.123"));
+		assertThrows(NumberFormatException.class, () -> MonetaryValueParser.parse("1.2.3"));
+	}
+
+}
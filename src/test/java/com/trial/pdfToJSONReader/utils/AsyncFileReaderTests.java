@@ -0,0 +1,74 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.CacheStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncFileReaderTests {
+
+	@TempDir
+	Path directory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ReadExecutors readExecutors = new ReadExecutors(true, 4, 2);
+	private final TextExtractor textExtractor = new TextExtractor(2, 2);
+	private final ResultCache resultCache = new ResultCache(objectMapper, true, 10, Duration.ofHours(1), "",
+			DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+	private final AsyncFileReader asyncFileReader = asyncFileReader(resultCache);
+
+	@AfterEach
+	void tearDown() {
+		readExecutors.destroy();
+		textExtractor.destroy();
+	}
+
+	@Test
+	void readsLikeTheBlockingReader() throws Exception {
+		final String path = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.withRows(500)).toString();
+		final String expected = objectMapper.writeValueAsString(new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(),
+				ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor()).read(path));
+
+		//Without a cache, so every mode actually loads the file
+		final AsyncFileReader uncached = asyncFileReader(ReaderFixtures.disabledCache());
+		for (LoadMode loadMode : LoadMode.values()) {
+			assertEquals(expected, objectMapper.writeValueAsString(uncached.read(path, loadMode).get(30, TimeUnit.SECONDS)), loadMode.name());
+		}
+	}
+
+	@Test
+	void aFileReadBeforeComesFromTheCache() throws Exception {
+		final String path = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.sample()).toString();
+		final String first = objectMapper.writeValueAsString(asyncFileReader.read(path, null).get(30, TimeUnit.SECONDS));
+		final String second = objectMapper.writeValueAsString(asyncFileReader.read(path, LoadMode.MAPPED).get(30, TimeUnit.SECONDS));
+
+		assertEquals(first, second);
+		final CacheStatistics statistics = resultCache.statistics();
+		assertEquals(1, statistics.getMisses());
+		assertEquals(1, statistics.getHits());
+	}
+
+	@Test
+	void aMissingFileFails() {
+		final ExecutionException failure = assertThrows(ExecutionException.class,
+				() -> asyncFileReader.read(directory.resolve("missing.pdf").toString(), null).get(30, TimeUnit.SECONDS));
+
+		assertTrue(failure.getCause() instanceof RuntimeException);
+		assertEquals(0, resultCache.statistics().getSize());
+	}
+
+	private AsyncFileReader asyncFileReader(final ResultCache cache) {
+		final FileReader fileReader = new FileReader(ReaderFixtures.defaultLoader(), cache, ReaderFixtures.disabledMetrics(),
+				ReaderFixtures.defaultTemplates(), textExtractor);
+		return new AsyncFileReader(fileReader, cache, ReaderFixtures.disabledMetrics(), readExecutors);
+	}
+}
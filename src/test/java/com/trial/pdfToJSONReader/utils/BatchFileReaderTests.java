@@ -0,0 +1,92 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.trial.pdfToJSONReader.entities.BatchResult;
+import com.trial.pdfToJSONReader.entities.FileResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchFileReaderTests {
+
+	private final BatchFileReader batchFileReader = new BatchFileReader(fileReader(), ReaderFixtures.unlimitedAdmission(), 2, 1);
+
+	@TempDir
+	Path directory;
+
+	@AfterEach
+	void shutdown() {
+		batchFileReader.destroy();
+	}
+
+	@Test
+	void oneBadFileDoesNotFailTheBatch() throws Exception {
+		final String good = SampleAdvices.write(directory.resolve("a.pdf"), SampleAdvices.sample()).toString();
+		final String missing = directory.resolve("missing.pdf").toString();
+
+		final BatchResult batchResult = batchFileReader.read(Arrays.asList(good, missing, good, good));
+
+		assertEquals(4, batchResult.getTotalFiles());
+		assertEquals(3, batchResult.getSucceeded());
+		assertEquals(1, batchResult.getFailed());
+		assertEquals(missing, batchResult.getFiles().get(1).getFilePath());
+		assertNotNull(batchResult.getFiles().get(1).getError());
+		assertEquals(6, batchResult.getFiles().get(3).getResult().getTransactions().size());
+	}
+
+	@Test
+	void streamsEveryFileWithoutHoldingTheBatch() throws Exception {
+		final String good = SampleAdvices.write(directory.resolve("a.pdf"), SampleAdvices.sample()).toString();
+		final List<String> paths = Collections.nCopies(10, good);
+		final List<FileResult> streamed = new ArrayList<>();
+
+		batchFileReader.stream(paths, streamed::add);
+
+		assertEquals(10, streamed.size());
+		assertTrue(streamed.stream().allMatch(FileResult::isSuccessful));
+	}
+
+	@Test
+	void resolvesADirectoryWithAGlob() throws Exception {
+		SampleAdvices.write(directory.resolve("b.pdf"), SampleAdvices.sample());
+		SampleAdvices.write(directory.resolve("a.pdf"), SampleAdvices.sample());
+		SampleAdvices.write(directory.resolve("notes.txt"), new byte[0]);
+
+		final List<String> paths = batchFileReader.resolve(directory.toString(), "*.pdf");
+
+		assertEquals(Arrays.asList(directory.resolve("a.pdf").toString(), directory.resolve("b.pdf").toString()), paths);
+	}
+
+	@Test
+	void filesTurnedAwayByAdmissionControlAreRecordedAsFailed() throws Exception {
+		final String good = SampleAdvices.write(directory.resolve("a.pdf"), SampleAdvices.sample()).toString();
+		final AdmissionControl admissionControl = new AdmissionControl(1, DataSize.ofMegabytes(100), 0,
+				Duration.ofSeconds(1), Duration.ofSeconds(5));
+		final BatchFileReader admitted = new BatchFileReader(fileReader(), admissionControl, 1, 1);
+		try {
+			final AdmissionControl.Permit running = admissionControl.acquire(10);
+			try (running) {
+				final BatchResult batchResult = admitted.read(Collections.singletonList(good));
+				assertEquals(1, batchResult.getFailed());
+				assertNotNull(batchResult.getFiles().get(0).getError());
+			}
+			assertEquals(1, admitted.read(Collections.singletonList(good)).getSucceeded());
+		} finally {
+			admitted.destroy();
+		}
+	}
+
+	private static FileReader fileReader() {
+		return new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(), ReaderFixtures.disabledMetrics(),
+				ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor());
+	}
+}
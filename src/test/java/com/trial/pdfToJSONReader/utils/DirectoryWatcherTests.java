@@ -0,0 +1,89 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryWatcherTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@TempDir
+	Path directory;
+
+	private DirectoryWatcher directoryWatcher;
+
+	@AfterEach
+	void stop() {
+		directoryWatcher.stop();
+	}
+
+	@Test
+	void readsFilesAsTheyLand() throws Exception {
+		directoryWatcher = watcher("");
+		directoryWatcher.start();
+
+		SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.sample());
+		SampleAdvices.write(directory.resolve("broken.pdf"), "not a pdf".getBytes());
+
+		final SampleModel sampleModel = objectMapper.readValue(await(directory.resolve("advice.json")).toFile(), SampleModel.class);
+		assertEquals(6, sampleModel.getTransactions().size());
+		final JsonNode error = objectMapper.readTree(await(directory.resolve("broken.error.json")).toFile());
+		assertFalse(error.get("successful").asBoolean());
+		assertNotNull(error.get("error").textValue());
+	}
+
+	@Test
+	void readsFilesThatWereThereBeforeStarting() throws Exception {
+		SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.sample());
+		final Path output = directory.resolve("output");
+		directoryWatcher = watcher(output.toString());
+
+		directoryWatcher.start();
+
+		final SampleModel sampleModel = objectMapper.readValue(await(output.resolve("advice.json")).toFile(), SampleModel.class);
+		assertEquals("4000070135", sampleModel.getAccountNumber());
+	}
+
+	@Test
+	void doesNotReadAgainFilesThatAlreadyFailed() throws Exception {
+		SampleAdvices.write(directory.resolve("broken.pdf"), "not a pdf".getBytes());
+		final Path error = Files.writeString(directory.resolve("broken.error.json"), "{\"error\":\"from an earlier run\"}");
+		Files.setLastModifiedTime(directory.resolve("broken.pdf"), FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+		SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.sample());
+		directoryWatcher = watcher("");
+
+		directoryWatcher.start();
+
+		//The advice is read, and by then the broken file would have been too, if it were not up to date
+		await(directory.resolve("advice.json"));
+		Thread.sleep(500);
+		assertEquals("from an earlier run", objectMapper.readTree(error.toFile()).get("error").textValue());
+	}
+
+	private DirectoryWatcher watcher(final String outputDirectory) {
+		return new DirectoryWatcher(new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(),
+				ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor()),
+				ReaderFixtures.disabledMetrics(), objectMapper, directory.toString(), "*.pdf", outputDirectory, Duration.ofMillis(100),
+				1, 2, 1, 2);
+	}
+
+	private static Path await(final Path path) throws InterruptedException {
+		for (int i = 0; i < 200 && !Files.exists(path); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(Files.exists(path), path + " was never written");
+		return path;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentLoaderTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void everyLoadModeGivesTheSameResult() throws Exception {
+		final String path = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.withRows(200)).toString();
+		//A tiny heap allowance forces the mixed modes to spill into temporary files
+		final DocumentLoader documentLoader = new DocumentLoader(LoadMode.MEMORY, DataSize.ofKilobytes(4), directory.toString(),
+				DataSize.ofMegabytes(50), DataSize.ofMegabytes(8));
+		final FileReader fileReader = new FileReader(documentLoader, ReaderFixtures.disabledCache(),
+				ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor());
+
+		final SampleModel expected = fileReader.read(path, LoadMode.MEMORY);
+		for (LoadMode loadMode : LoadMode.values()) {
+			final SampleModel sampleModel = fileReader.read(path, loadMode);
+			assertEquals(200, sampleModel.getTransactions().size(), loadMode.name());
+			assertEquals(expected.getTotalDebit(), sampleModel.getTotalDebit(), loadMode.name());
+			assertEquals(expected.getTransactions().get(199).getCreditAmount(),
+					sampleModel.getTransactions().get(199).getCreditAmount(), loadMode.name());
+		}
+	}
+
+	@Test
+	void brokenFilesAreClosedAndReported() throws Exception {
+		final Path broken = Files.write(directory.resolve("broken.pdf"), "%PDF-1.4 not really".getBytes());
+		final FileReader fileReader = new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(),
+				ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor());
+
+		for (LoadMode loadMode : LoadMode.values()) {
+			assertThrows(RuntimeException.class, () -> fileReader.read(broken.toString(), loadMode), loadMode.name());
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.entities.Transaction;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileReaderTests {
+
+	@TempDir
+	Path directory;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void pageByPageReadingMatchesReadingTheWholeText() throws Exception {
+		//Enough rows to spread the advice over many pages
+		final String path = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.withRows(500)).toString();
+		final SampleModel wholeText;
+		try (PDDocument document = PDDocument.load(new File(path))) {
+			assertTrue(document.getNumberOfPages() > 5);
+			wholeText = AdviceParser.parse(new PDFTextStripper().getText(document));
+		}
+		final List<Transaction> streamed = new ArrayList<>();
+
+		final SampleModel pageByPage = new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(),
+				ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor())
+				.read(path, null, streamed::add);
+
+		assertEquals(objectMapper.writeValueAsString(wholeText), objectMapper.writeValueAsString(pageByPage));
+		assertEquals(pageByPage.getTransactions(), streamed);
+		//The totals of a generated advice always add up, over every page
+		assertTrue(pageByPage.getValidation().isValid());
+	}
+
+	@Test
+	void splitDocumentsAreReadLikeWholeOnes() throws Exception {
+		final String path = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.withRows(500)).toString();
+		final String wholeText;
+		final String expected;
+		try (PDDocument document = PDDocument.load(new File(path))) {
+			wholeText = new PDFTextStripper().getText(document);
+			expected = objectMapper.writeValueAsString(AdviceParser.parse(wholeText));
+		}
+
+		//Chunks of a single page, chunks that do not divide the pages evenly, and a single chunk larger than the document
+		for (int chunkPages : new int[]{1, 2, 3, 1000}) {
+			final TextExtractor textExtractor = new TextExtractor(chunkPages, 3);
+			try {
+				try (PDDocument document = PDDocument.load(new File(path))) {
+					final StringWriter text = new StringWriter();
+					textExtractor.writeText(document, () -> PDDocument.load(new File(path)), text);
+					assertEquals(wholeText, text.toString());
+				}
+				for (LoadMode loadMode : LoadMode.values()) {
+					final List<Transaction> streamed = new ArrayList<>();
+					final SampleModel split = new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(),
+							ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), textExtractor).read(path, loadMode, streamed::add);
+					assertEquals(expected, objectMapper.writeValueAsString(split));
+					assertEquals(split.getTransactions(), streamed);
+				}
+			} finally {
+				textExtractor.destroy();
+			}
+		}
+	}
+
+	@Test
+	void writerMatchesParsingTheWholeText() {
+		final String text = AdviceParserTests.SAMPLE;
+		//Write the text in awkward pieces, so lines are cut at every possible place
+		for (int chunk = 1; chunk < 12; chunk++) {
+			final AdviceParser parser = new AdviceParser();
+			final AdviceParserWriter writer = new AdviceParserWriter(parser);
+			for (int i = 0; i < text.length(); i += chunk) {
+				writer.write(text, i, Math.min(chunk, text.length() - i));
+			}
+			writer.close();
+			final SampleModel sampleModel = parser.finish();
+			assertEquals(6, sampleModel.getTransactions().size());
+			assertEquals(AdviceParser.parse(text).getMetaInformation(), sampleModel.getMetaInformation());
+		}
+	}
+
+	@Test
+	void uploadsAreReadLikeFiles() throws Exception {
+		final byte[] advice = SampleAdvices.withRows(200);
+		final String path = SampleAdvices.write(directory.resolve("advice.pdf"), advice).toString();
+		//A threshold below the size of the advice, so both the in memory and the spilling route are taken
+		final FileReader fileReader = new FileReader(new DocumentLoader(LoadMode.MEMORY, DataSize.ofMegabytes(64), directory.toString(),
+				DataSize.ofMegabytes(1), DataSize.ofBytes(advice.length - 1)), ReaderFixtures.disabledCache(),
+						ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor());
+		final String expected = objectMapper.writeValueAsString(fileReader.read(path));
+
+		assertEquals(expected, objectMapper.writeValueAsString(fileReader.read(new ByteArrayInputStream(advice), advice.length)));
+		assertEquals(expected, objectMapper.writeValueAsString(fileReader.read(new ByteArrayInputStream(advice), -1)));
+		assertEquals(expected, objectMapper.writeValueAsString(
+				new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(), ReaderFixtures.disabledMetrics(),
+						ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor()).read(new ByteArrayInputStream(advice), advice.length)));
+	}
+
+	@Test
+	void uploadsLargerThanTheMaximumAreRefused() {
+		final byte[] advice = SampleAdvices.withRows(200);
+		final FileReader fileReader = new FileReader(new DocumentLoader(LoadMode.MEMORY, DataSize.ofMegabytes(64), "",
+				DataSize.ofBytes(advice.length - 1), DataSize.ofBytes(100)), ReaderFixtures.disabledCache(),
+						ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor());
+
+		assertThrows(UploadTooLargeException.class, () -> fileReader.read(new ByteArrayInputStream(advice), advice.length));
+		assertThrows(UploadTooLargeException.class, () -> fileReader.read(new ByteArrayInputStream(advice), -1));
+	}
+
+}
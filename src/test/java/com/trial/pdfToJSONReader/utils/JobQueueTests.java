@@ -0,0 +1,128 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.Job;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobQueueTests {
+
+	private final FileReader fileReader = new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(),
+			ReaderFixtures.disabledMetrics(), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor());
+
+	@TempDir
+	Path directory;
+
+	private JobQueue jobQueue;
+
+	@AfterEach
+	void stop() {
+		jobQueue.stop();
+	}
+
+	@Test
+	void queuedJobsSurviveARestartAndRunByPriority() throws Exception {
+		final String advice = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.sample()).toString();
+		final Path jobs = directory.resolve("jobs");
+		//Never started, as if the application stopped before getting to the jobs
+		final JobQueue stopped = jobQueue(jobs, Duration.ofHours(1));
+		final Job low = stopped.submit(advice, null, 0);
+		final Job high = stopped.submit(advice, null, 5);
+		final Job missing = stopped.submit(directory.resolve("missing.pdf").toString(), null, 0);
+		assertEquals(Job.Status.QUEUED, stopped.get(low.getId()).getStatus());
+
+		jobQueue = jobQueue(jobs, Duration.ofHours(1));
+		jobQueue.start();
+
+		final Job lowDone = await(low.getId());
+		final Job highDone = await(high.getId());
+		assertEquals(Job.Status.SUCCEEDED, lowDone.getStatus());
+		assertEquals(6, lowDone.getResult().getTransactions().size());
+		assertTrue(highDone.getStartedAt() <= lowDone.getStartedAt());
+		final Job missingDone = await(missing.getId());
+		assertEquals(Job.Status.FAILED, missingDone.getStatus());
+		assertNotNull(missingDone.getError());
+	}
+
+	@Test
+	void finishedJobsExpire() throws Exception {
+		final String advice = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.sample()).toString();
+		jobQueue = jobQueue(directory.resolve("jobs"), Duration.ofMillis(200));
+		jobQueue.start();
+
+		final Job job = jobQueue.submit(advice, null, 0);
+		assertEquals(Job.Status.SUCCEEDED, await(job.getId()).getStatus());
+		Thread.sleep(400);
+
+		assertNull(jobQueue.get(job.getId()));
+	}
+
+	@Test
+	void aJobWhoseStateCannotBeWrittenFailsWithoutStoppingTheWorker() throws Exception {
+		final String advice = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.sample()).toString();
+		//Writing the first job that starts running fails, as if the disk was full for a moment
+		final AtomicBoolean failed = new AtomicBoolean();
+		final ObjectMapper objectMapper = new ObjectMapper() {
+			@Override
+			public void writeValue(final File resultFile, final Object value) throws IOException {
+				if (((Job) value).getStatus() == Job.Status.RUNNING && failed.compareAndSet(false, true)) {
+					throw new IOException("No space left on device");
+				}
+				super.writeValue(resultFile, value);
+			}
+		};
+		jobQueue = new JobQueue(fileReader, objectMapper, directory.resolve("jobs").toString(), 1, Duration.ofHours(1), 10,
+				Duration.ofSeconds(5));
+		jobQueue.start();
+
+		final Job first = jobQueue.submit(advice, null, 0);
+		final Job firstDone = await(first.getId());
+		assertEquals(Job.Status.FAILED, firstDone.getStatus());
+		assertEquals("No space left on device", firstDone.getError());
+
+		//The only worker is still there for the next job
+		final Job second = jobQueue.submit(advice, null, 0);
+		assertEquals(Job.Status.SUCCEEDED, await(second.getId()).getStatus());
+	}
+
+	@Test
+	void aFullQueueTurnsJobsAway() throws Exception {
+		final String advice = SampleAdvices.write(directory.resolve("advice.pdf"), SampleAdvices.sample()).toString();
+		//Not started yet, so nothing leaves the queue
+		jobQueue = new JobQueue(fileReader, new ObjectMapper(), "", 1, Duration.ofHours(1), 1, Duration.ofSeconds(5));
+
+		final Job first = jobQueue.submit(advice, null, 0);
+		final OverloadedException rejected = assertThrows(OverloadedException.class, () -> jobQueue.submit(advice, null, 0));
+		assertTrue(rejected.isQueueFull());
+		assertEquals(5, rejected.getRetryAfterSeconds());
+
+		//Once the job has left the queue, there is room again
+		jobQueue.start();
+		await(first.getId());
+		assertEquals(Job.Status.SUCCEEDED, await(jobQueue.submit(advice, null, 0).getId()).getStatus());
+	}
+
+	private JobQueue jobQueue(final Path jobs, final Duration resultTtl) {
+		return new JobQueue(fileReader, new ObjectMapper(), jobs.toString(), 1, resultTtl, 10, Duration.ofSeconds(5));
+	}
+
+	private Job await(final String id) throws InterruptedException {
+		Job job = jobQueue.get(id);
+		for (int i = 0; i < 200 && !job.isFinished(); i++) {
+			Thread.sleep(50);
+			job = jobQueue.get(id);
+		}
+		assertTrue(job.isFinished(), "Job " + id + " never finished");
+		return job;
+	}
+
+}
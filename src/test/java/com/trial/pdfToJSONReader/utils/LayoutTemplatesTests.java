@@ -0,0 +1,116 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.entities.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LayoutTemplatesTests {
+
+	//A layout with no blank lines, no meta information and no closing line
+	private static final LayoutTemplate CLEARING_ADVICE = LayoutTemplate.builder("clearing-advice")
+			.startsWith(0, "CLEARING ADVICE")
+			.startsWith(2, "S/N")
+			.header(LineRole.TITLE, LineRole.ACCOUNT, LineRole.CURRENCIES)
+			.footer(LineRole.TOTALS, LineRole.NET_POSITION)
+			.build();
+
+	private static final String CLEARING_SAMPLE = "CLEARING ADVICE - ACME\n" +
+			"Account No.1234567890 Opening Collateral:$10,000.00\n" +
+			"S/N Payment Scheme SchemeType Debit (USD) Credit (USD)\n" +
+			"1  Wire Transfer SWIFT 2,500.00 -\n" +
+			"2  Card Settlement Card - 1,000.50\n" +
+			"Total Debit / Credit(USD) 2,500.00 1,000.50\n" +
+			"OVERALL NET POSITION (USD) 1,499.50 DR\n";
+
+	//A layout whose fields are not where the NIBSS advice has them
+	private static final LayoutTemplate SETTLEMENT_SUMMARY = LayoutTemplate.builder("settlement-summary")
+			.startsWith(0, "SETTLEMENT SUMMARY")
+			.header(LineRole.TITLE, LineRole.ACCOUNT, LineRole.CURRENCIES)
+			.footer(LineRole.TOTALS, LineRole.NET_POSITION)
+			.field(LayoutTemplate.Field.OPENING_COLLATERAL, 0, ':')
+			.field(LayoutTemplate.Field.ACCOUNT_NUMBER, -1, '#')
+			.field(LayoutTemplate.Field.TOTAL_DEBIT, 1)
+			.field(LayoutTemplate.Field.TOTAL_CREDIT, 2)
+			.field(LayoutTemplate.Field.NET_POSITION_SIDE, 1)
+			.field(LayoutTemplate.Field.OVERALL_NET_POSITION, -1)
+			.build();
+
+	private static final String SUMMARY_SAMPLE = "SETTLEMENT SUMMARY - ACME\n" +
+			"Collateral:$10,000.00 held for Account#1234567890\n" +
+			"S/N Payment Scheme SchemeType Debit (USD) Credit (USD)\n" +
+			"1  Wire Transfer SWIFT 2,500.00 -\n" +
+			"2  Card Settlement Card - 1,000.50\n" +
+			"Totals 2,500.00 1,000.50 (USD)\n" +
+			"Net DR 1,499.50\n";
+
+	private final LayoutTemplates layoutTemplates = new LayoutTemplates(Collections.singletonList(CLEARING_ADVICE));
+
+	@Test
+	void picksTheTemplateFromTheFirstLines() {
+		final AdviceParser parser = new AdviceParser(layoutTemplates, transaction -> { });
+		final String[] lines = CLEARING_SAMPLE.split("\n");
+		for (String line : lines) {
+			parser.line(line, 0, line.length());
+		}
+		assertSame(CLEARING_ADVICE, parser.template());
+
+		final SampleModel sampleModel = parser.finish();
+		assertEquals("CLEARING ADVICE - ACME", sampleModel.getTitle());
+		assertEquals("1234567890", sampleModel.getAccountNumber());
+		assertEquals(Transaction.Currency.USD, sampleModel.getDebitCurrency());
+		assertEquals(2, sampleModel.getTransactions().size());
+		assertEquals("Card Settlement", sampleModel.getTransactions().get(1).getPaymentScheme());
+		assertEquals(new BigDecimal("1000.50"), sampleModel.getTotalCredit());
+		assertEquals(new BigDecimal("1499.50"), sampleModel.getOverallNetPosition());
+		assertEquals("", sampleModel.getMetaInformation());
+	}
+
+	@Test
+	void fieldsAreReadWhereTheTemplateSaysTheyAre() {
+		final LayoutTemplates templates = new LayoutTemplates(Arrays.asList(CLEARING_ADVICE, SETTLEMENT_SUMMARY));
+		final AdviceParser parser = new AdviceParser(templates, transaction -> { });
+		final String[] lines = SUMMARY_SAMPLE.split("\n");
+		for (String line : lines) {
+			parser.line(line, 0, line.length());
+		}
+		assertSame(SETTLEMENT_SUMMARY, parser.template());
+
+		final SampleModel sampleModel = parser.finish();
+		assertEquals("1234567890", sampleModel.getAccountNumber());
+		assertEquals(new BigDecimal("10000.00"), sampleModel.getOpeningCollateral());
+		assertEquals(new BigDecimal("2500.00"), sampleModel.getTotalDebit());
+		assertEquals(new BigDecimal("1000.50"), sampleModel.getTotalCredit());
+		assertEquals(new BigDecimal("1499.50"), sampleModel.getOverallNetPosition());
+		//The side was read from its own word, so a debit net position checks out against the transactions
+		assertTrue(sampleModel.getValidation().isValid());
+	}
+
+	@Test
+	void theNibssAdviceIsStillReadTheSameWay() {
+		final AdviceParser parser = new AdviceParser(layoutTemplates, transaction -> { });
+		final String[] lines = AdviceParserTests.SAMPLE.split("\n");
+		for (String line : lines) {
+			parser.line(line, 0, line.length());
+		}
+
+		assertSame(LayoutTemplate.NIBSS_SETTLEMENT_ADVICE, parser.template());
+		assertEquals(AdviceParser.parse(AdviceParserTests.SAMPLE).getMetaInformation(), parser.finish().getMetaInformation());
+	}
+
+	@Test
+	void unknownLayoutsFallBackToTheNibssAdvice() {
+		assertEquals(Arrays.asList(CLEARING_ADVICE, LayoutTemplate.NIBSS_SETTLEMENT_ADVICE), layoutTemplates.templates());
+
+		final SampleModel sampleModel = AdviceParser.parse(AdviceParserTests.SAMPLE.replace("INTER-BANK", "INTRA-BANK"), layoutTemplates);
+
+		assertEquals("INTRA-BANK SETTLEMENT ADVICE", sampleModel.getTitle());
+		assertEquals(6, sampleModel.getTransactions().size());
+	}
+
+}
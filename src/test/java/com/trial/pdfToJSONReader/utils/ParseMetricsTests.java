@@ -0,0 +1,67 @@
+package com.trial.pdfToJSONReader.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParseMetricsTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ParseMetrics parseMetrics = new ParseMetrics(meterRegistry);
+
+	@Test
+	void everyStageHasATimerOfItsOwn() {
+		parseMetrics.loaded(TimeUnit.MILLISECONDS.toNanos(3), 2048, 2);
+		parseMetrics.extracted(TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.MILLISECONDS.toNanos(1), 40, 6);
+		parseMetrics.serialized(TimeUnit.MILLISECONDS.toNanos(2));
+		parseMetrics.serialized(TimeUnit.MILLISECONDS.toNanos(2));
+
+		assertEquals(3, stageMillis("load"));
+		assertEquals(5, stageMillis("strip"));
+		assertEquals(1, stageMillis("parse"));
+		assertEquals(4, stageMillis("serialize"));
+		assertEquals(2, meterRegistry.get("pdf.parse.stage").tag("stage", "serialize").timer().count());
+	}
+
+	@Test
+	void countsWhatWasRead() {
+		parseMetrics.loaded(1, 2048, 2);
+		parseMetrics.loaded(1, 1024, 1);
+		parseMetrics.extracted(1, 1, 40, 6);
+		parseMetrics.invalidTotals();
+
+		assertEquals(3072, meterRegistry.get("pdf.parse.bytes").counter().count());
+		assertEquals(3, meterRegistry.get("pdf.parse.pages").counter().count());
+		assertEquals(40, meterRegistry.get("pdf.parse.lines").counter().count());
+		assertEquals(6, meterRegistry.get("pdf.parse.transactions").counter().count());
+		assertEquals(1, meterRegistry.get("pdf.parse.invalid.totals").counter().count());
+	}
+
+	@Test
+	void countsTheFilesBeingRead() {
+		parseMetrics.started();
+		parseMetrics.started();
+		parseMetrics.finished();
+
+		assertEquals(1, meterRegistry.get("pdf.parse.in.flight").gauge().value());
+	}
+
+	@Test
+	void failuresAreTaggedWithTheirRootCause() {
+		parseMetrics.failed(new RuntimeException(new UncheckedIOException(new FileNotFoundException("missing.pdf"))));
+		parseMetrics.failed(new FileNotFoundException("other.pdf"));
+		parseMetrics.failed(new IllegalArgumentException("Not an advice"));
+
+		assertEquals(2, meterRegistry.get("pdf.parse.failures").tag("cause", "FileNotFoundException").counter().count());
+		assertEquals(1, meterRegistry.get("pdf.parse.failures").tag("cause", "IllegalArgumentException").counter().count());
+	}
+
+	private double stageMillis(final String stage) {
+		return meterRegistry.get("pdf.parse.stage").tag("stage", stage).timer().totalTime(TimeUnit.MILLISECONDS);
+	}
+}
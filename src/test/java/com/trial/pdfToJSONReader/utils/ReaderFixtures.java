@@ -0,0 +1,60 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Builds the collaborators of the readers without Spring, for the tests and the benchmarks that put a reader together by hand.
+ * Each one does as little as it can, so only what is under test (or being measured) does any work.
+ */
+public final class ReaderFixtures {
+
+	private ReaderFixtures() {
+	}
+
+	/**
+	 * @return a loader with the defaults of application.properties, which keeps every document in memory
+	 */
+	public static DocumentLoader defaultLoader() {
+		return new DocumentLoader(LoadMode.MEMORY, DataSize.ofMegabytes(64), "", DataSize.ofMegabytes(50), DataSize.ofMegabytes(8));
+	}
+
+	/**
+	 * @return a cache that never keeps anything, so every read parses its file
+	 */
+	public static ResultCache disabledCache() {
+		return new ResultCache(new ObjectMapper(), false, 0, Duration.ZERO, "", DataSize.ofBytes(0), Duration.ZERO);
+	}
+
+	/**
+	 * @return metrics recorded in a registry of their own, which nothing publishes
+	 */
+	public static ParseMetrics disabledMetrics() {
+		return new ParseMetrics(new SimpleMeterRegistry());
+	}
+
+	/**
+	 * @return an extractor that reads every document with a single stripper, on the thread that asked for it
+	 */
+	public static TextExtractor sequentialExtractor() {
+		return new TextExtractor(0, 0);
+	}
+
+	/**
+	 * @return only the NIBSS settlement advice template
+	 */
+	public static LayoutTemplates defaultTemplates() {
+		return new LayoutTemplates(Collections.emptyList());
+	}
+
+	/**
+	 * @return an admission control that lets every read in
+	 */
+	public static AdmissionControl unlimitedAdmission() {
+		return new AdmissionControl(Integer.MAX_VALUE, DataSize.ofBytes(Long.MAX_VALUE), 0, Duration.ZERO, Duration.ZERO);
+	}
+}
@@ -0,0 +1,149 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trial.pdfToJSONReader.entities.SampleModel;
+import com.trial.pdfToJSONReader.entities.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTests {
+
+	@TempDir
+	Path directory;
+
+	private final AtomicInteger reads = new AtomicInteger();
+
+	private final Function<String, SampleModel> reader = path -> {
+		reads.incrementAndGet();
+		final SampleModel sampleModel = new SampleModel();
+		sampleModel.setTitle(path);
+		return sampleModel;
+	};
+
+	@Test
+	void sameContentIsOnlyReadOnce() throws Exception {
+		final ResultCache resultCache = cache(10, Duration.ofHours(1), "");
+		final Path first = Files.write(directory.resolve("first.pdf"), "advice".getBytes(StandardCharsets.UTF_8));
+		final Path copy = Files.write(directory.resolve("copy.pdf"), "advice".getBytes(StandardCharsets.UTF_8));
+		final Path other = Files.write(directory.resolve("other.pdf"), "another advice".getBytes(StandardCharsets.UTF_8));
+
+		resultCache.get(first.toString(), reader);
+		resultCache.get(first.toString(), reader);
+		assertEquals(first.toString(), resultCache.get(copy.toString(), reader).getTitle());
+		resultCache.get(other.toString(), reader);
+
+		assertEquals(2, reads.get());
+		assertEquals(2, resultCache.statistics().getHits());
+		assertEquals(2, resultCache.statistics().getMisses());
+	}
+
+	@Test
+	void leastRecentlyUsedAndExpiredEntriesAreEvicted() throws Exception {
+		final ResultCache small = cache(1, Duration.ofHours(1), "");
+		final Path a = Files.write(directory.resolve("a.pdf"), "a".getBytes(StandardCharsets.UTF_8));
+		final Path b = Files.write(directory.resolve("b.pdf"), "b".getBytes(StandardCharsets.UTF_8));
+		small.get(a.toString(), reader);
+		small.get(b.toString(), reader);
+		small.get(a.toString(), reader);
+		assertEquals(3, reads.get());
+		assertEquals(2, small.statistics().getEvictions());
+
+		final ResultCache expired = cache(10, Duration.ZERO, "");
+		expired.get(a.toString(), reader);
+		expired.get(a.toString(), reader);
+		assertEquals(5, reads.get());
+	}
+
+	@Test
+	void callersCannotChangeWhatOthersAreGiven() throws Exception {
+		final ResultCache resultCache = cache(10, Duration.ofHours(1), "");
+		final Path file = Files.write(directory.resolve("advice.pdf"), "advice".getBytes(StandardCharsets.UTF_8));
+		final Function<String, SampleModel> withTransactions = path -> {
+			final SampleModel sampleModel = reader.apply(path);
+			sampleModel.setTransactions(new ArrayList<>(List.of(new Transaction(1, "NIP", "EFT", BigDecimal.ONE, BigDecimal.ZERO))));
+			return sampleModel;
+		};
+
+		final SampleModel read = resultCache.get(file.toString(), withTransactions);
+		read.setTitle("changed");
+		read.getTransactions().get(0).setPaymentScheme("changed");
+		final SampleModel hit = resultCache.get(file.toString(), withTransactions);
+		hit.getTransactions().clear();
+
+		final SampleModel again = resultCache.get(file.toString(), withTransactions);
+		assertEquals(file.toString(), again.getTitle());
+		assertEquals(1, again.getTransactions().size());
+		assertEquals("NIP", again.getTransactions().get(0).getPaymentScheme());
+		assertEquals(1, reads.get());
+	}
+
+	@Test
+	void diskTierSurvivesARestart() throws Exception {
+		final String cacheDirectory = directory.resolve("cache").toString();
+		final Path file = Files.write(directory.resolve("advice.pdf"), "advice".getBytes(StandardCharsets.UTF_8));
+
+		cache(10, Duration.ofHours(1), cacheDirectory).get(file.toString(), reader);
+		final ResultCache restarted = cache(10, Duration.ofHours(1), cacheDirectory);
+
+		assertEquals(file.toString(), restarted.get(file.toString(), reader).getTitle());
+		assertEquals(1, reads.get());
+		assertEquals(1, restarted.statistics().getDiskHits());
+	}
+
+	@Test
+	void diskTierIsSweptAndCapped() throws Exception {
+		final String cacheDirectory = directory.resolve("cache").toString();
+		final ResultCache resultCache = cache(10, Duration.ofHours(1), cacheDirectory);
+		//The first result expired an hour ago, the others were written a few minutes apart
+		final long[] ageMinutes = {120, 10, 5};
+		final List<Path> results = new ArrayList<>();
+		for (int i = 0; i < ageMinutes.length; i++) {
+			final Path file = Files.write(directory.resolve("advice-" + i + ".pdf"), ("advice " + i).getBytes(StandardCharsets.UTF_8));
+			resultCache.get(file.toString(), reader);
+			final Path result = newResult(Paths.get(cacheDirectory), results);
+			Files.setLastModifiedTime(result, FileTime.fromMillis(System.currentTimeMillis() - ageMinutes[i] * 60_000));
+			results.add(result);
+		}
+		resultCache.destroy();
+		final Path leftover = Files.write(Paths.get(cacheDirectory, "left-behind.tmp"), new byte[1]);
+		Files.setLastModifiedTime(leftover, FileTime.fromMillis(System.currentTimeMillis() - 120 * 60_000));
+
+		//On a restart with room for a single result, the expired result and the temporary file are deleted, and of the other two
+		// only the newest is kept
+		new ResultCache(new ObjectMapper(), true, 10, Duration.ofHours(1), cacheDirectory, DataSize.ofBytes(Files.size(results.get(2))),
+				Duration.ofHours(1)).destroy();
+
+		assertFalse(Files.exists(results.get(0)));
+		assertFalse(Files.exists(results.get(1)));
+		assertTrue(Files.exists(results.get(2)));
+		assertFalse(Files.exists(leftover));
+	}
+
+	private ResultCache cache(final int maxEntries, final Duration ttl, final String cacheDirectory) {
+		return new ResultCache(new ObjectMapper(), true, maxEntries, ttl, cacheDirectory, DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+	}
+
+	//The result in the directory that is not one of those already seen
+	private static Path newResult(final Path cacheDirectory, final List<Path> seen) throws IOException {
+		try (Stream<Path> files = Files.list(cacheDirectory)) {
+			return files.filter(file -> file.toString().endsWith(".json") && !seen.contains(file)).findFirst().orElseThrow();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.trial.pdfToJSONReader.utils;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Builds settlement advices laid out like the NIBSS sample documented in {@link FileReader#read(String)},
+ * so the tests do not depend on a real advice being present on the machine.
+ */
+public final class SampleAdvices {
+
+	private SampleAdvices() {
+	}
+
+	/**
+	 * @return the bytes of an advice holding the six transactions of the documented sample
+	 */
+	public static byte[] sample() {
+		return build(new String[]{
+				"1  e-Transact Card 20,000.00 -",
+				"2  FMDQ Transaction Fee FMDQ 2,199,733.83 -",
+				"3  Interswitch Card - 4,320,410,494.37",
+				"4  NAPS SETTLEMENT NAPS 112,780,422.02 -",
+				"5  NIBSS e-BillsPay EFT 13,126,182.79 -",
+				"6  NIBSS Instant Payment EFT 421,219,549.97 -"
+		}, "549,345,888.61", "4,320,410,494.37", "3,771,064,605.76 CR");
+	}
+
+	/**
+	 * @return the bytes of an advice holding the given number of generated transactions
+	 */
+	public static byte[] withRows(final int rows) {
+		final String[] lines = new String[rows];
+		long debit = 0;
+		long credit = 0;
+		for (int i = 0; i < rows; i++) {
+			final long cents = 100_000L + i * 7_919L;
+			if (i % 3 == 2) {
+				credit += cents;
+				lines[i] = (i + 1) + "  Interswitch Card - " + money(cents);
+			} else {
+				debit += cents;
+				lines[i] = (i + 1) + "  NIBSS Instant Payment EFT " + money(cents) + " -";
+			}
+		}
+		return build(lines, money(debit), money(credit), money(Math.abs(credit - debit)) + (credit < debit ? " DR" : " CR"));
+	}
+
+	public static Path write(final Path target, final byte[] pdf) throws IOException {
+		return Files.write(target, pdf);
+	}
+
+	private static byte[] build(final String[] rows, final String totalDebit, final String totalCredit, final String net) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final Document document = new Document();
+		try {
+			PdfWriter.getInstance(document, out);
+			document.open();
+			document.add(new Paragraph(" "));
+			document.add(new Paragraph("INTER-BANK SETTLEMENT ADVICE"));
+			document.add(new Paragraph(" "));
+			document.add(new Paragraph("The Treasurer / Head of Operations"));
+			document.add(new Paragraph("First Bank Nigeria Ltd"));
+			document.add(new Paragraph("35 Marina"));
+			document.add(new Paragraph("Lagos Island, Lagos"));
+			document.add(new Paragraph("26/06/2020"));
+			document.add(new Paragraph("Session 3"));
+			document.add(new Paragraph("Account No.4000070135 Opening Collateral:N3,390,000,000.00"));
+			document.add(new Paragraph("S/N Payment Scheme SchemeType Debit (NGN) Credit (NGN)"));
+			for (String row : rows) {
+				document.add(new Paragraph(row));
+			}
+			document.add(new Paragraph("Total Debit / Credit(NGN) " + totalDebit + " " + totalCredit));
+			document.add(new Paragraph("OVERALL NET POSITION (NGN) " + net));
+			document.add(new Paragraph("Nigeria Inter-Bank Settlement System Settlement Advice"));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		} finally {
+			document.close();
+		}
+		return out.toByteArray();
+	}
+
+	private static String money(final long cents) {
+		return String.format("%,d.%02d", cents / 100, cents % 100);
+	}
+}
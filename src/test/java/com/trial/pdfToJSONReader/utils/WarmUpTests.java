@@ -0,0 +1,30 @@
+package com.trial.pdfToJSONReader.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmUpTests {
+
+	@Test
+	void readsTheBundledSampleAndReportsTheTimings() {
+		final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		final FileReader fileReader = new FileReader(ReaderFixtures.defaultLoader(), ReaderFixtures.disabledCache(),
+				new ParseMetrics(meterRegistry), ReaderFixtures.defaultTemplates(), ReaderFixtures.sequentialExtractor());
+
+		new WarmUp(fileReader, meterRegistry, 3).run(null);
+
+		assertTrue(meterRegistry.get("pdf.warmup.duration").timeGauge().value(TimeUnit.NANOSECONDS) > 0);
+		final double first = meterRegistry.get("pdf.warmup.read").tag("read", "first").timeGauge().value(TimeUnit.NANOSECONDS);
+		final double last = meterRegistry.get("pdf.warmup.read").tag("read", "last").timeGauge().value(TimeUnit.NANOSECONDS);
+		assertTrue(first > 0);
+		assertTrue(last > 0);
+		//The sample is not traffic, so none of its reads show up in the parse metrics
+		assertEquals(0, meterRegistry.get("pdf.parse.stage").tag("stage", "load").timer().count());
+		assertEquals(0, meterRegistry.get("pdf.parse.pages").counter().count());
+	}
+
+}